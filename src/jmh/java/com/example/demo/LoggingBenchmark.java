@@ -0,0 +1,115 @@
+package com.example.demo;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 业务线程写日志的吞吐对比，与logback-spring.xml中的配置对应
+ * 1. sync-caller：同步文件appender + %L行号(原配置)
+ * 2. sync：同步文件appender，无行号(prod)
+ * 3. async：AsyncAppender + neverBlock，无行号
+ * 另外对比DEBUG未开启时字符串拼接与参数化+级别判断的开销
+ * ./gradlew jmh -Pjmh.includes=LoggingBenchmark
+ * @author Marion
+ * @date 2026/10/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(4)
+public class LoggingBenchmark {
+
+    private static final String PATTERN = "%d{yy-MM-dd HH:mm:ss.SSS} %5level [%-16.16thread] %-40.40logger{40} - %msg%n";
+
+    @Param({"sync-caller", "sync", "async"})
+    public String mode;
+
+    private LoggerContext context;
+    private Logger logger;
+    private File file;
+    private int serial;
+
+    @Setup
+    public void setUp() throws IOException {
+        file = File.createTempFile("logging-benchmark", ".log");
+        context = new LoggerContext();
+
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("sync-caller".equals(mode) ? PATTERN.replace(" - ", ":%-3L - ") : PATTERN);
+        encoder.start();
+
+        FileAppender<ILoggingEvent> fileAppender = new FileAppender<>();
+        fileAppender.setContext(context);
+        fileAppender.setFile(file.getAbsolutePath());
+        fileAppender.setEncoder(encoder);
+        fileAppender.start();
+
+        Appender<ILoggingEvent> appender = fileAppender;
+        if ("async".equals(mode)) {
+            AsyncAppender async = new AsyncAppender();
+            async.setContext(context);
+            async.setQueueSize(8192);
+            async.setDiscardingThreshold(1638);
+            async.setNeverBlock(true);
+            async.setIncludeCallerData(false);
+            async.addAppender(fileAppender);
+            async.start();
+            appender = async;
+        }
+
+        logger = context.getLogger("com.example.demo.bench");
+        logger.setAdditive(false);
+        logger.setLevel(Level.INFO);
+        logger.addAppender(appender);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.stop();
+        file.delete();
+    }
+
+    @Benchmark
+    public void info() {
+        logger.info("收到设备消息 serial={}, length={}", serial++, 64);
+    }
+
+    /**
+     * DEBUG关闭时仍然拼接字符串
+     */
+    @Benchmark
+    public void debugConcat() {
+        logger.debug("1. lock current thread=" + Thread.currentThread().getName());
+    }
+
+    /**
+     * DEBUG关闭时先判断级别，参数不会被求值
+     */
+    @Benchmark
+    public void debugGuarded() {
+        if (logger.isDebugEnabled()) {
+            logger.debug("1. lock current thread={}", Thread.currentThread().getName());
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.demo.service.connect.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 设备帧解码吞吐：DeviceFrameDecoder + DeviceMessageDecoder
+ * 每次调用写入一个包含FRAMES个帧的ByteBuf(模拟一次read读到多个帧)，结果按帧计
+ * ./gradlew jmh -Pjmh.includes=DeviceDecoderBenchmark
+ * @author Marion
+ * @date 2026/10/18
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DeviceDecoderBenchmark {
+
+    private static final int FRAMES = 64;
+
+    @Param({"16", "256", "4096"})
+    public int bodyLength;
+
+    private EmbeddedChannel channel;
+    private ByteBuf frames;
+
+    @Setup
+    public void setUp() {
+        channel = new EmbeddedChannel(
+                new DeviceFrameDecoder(DeviceMessage.HEADER_LENGTH + bodyLength),
+                new DeviceMessageDecoder(new InFlightFrames()));
+
+        frames = PooledByteBufAllocator.DEFAULT.directBuffer(FRAMES * (DeviceMessage.HEADER_LENGTH + bodyLength));
+        for (int i = 0; i < FRAMES; i++) {
+            frames.writeShort(1)
+                    .writeShort(1)
+                    .writeShort(2)
+                    .writeShort(3)
+                    .writeInt(i)
+                    .writeInt(bodyLength)
+                    .writeZero(bodyLength);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        frames.release();
+        channel.finish();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FRAMES)
+    public int decode() {
+        channel.writeInbound(frames.duplicate().retain());
+        int length = 0;
+        DeviceMessage msg;
+        while ((msg = (DeviceMessage) channel.readInbound()) != null) {
+            length += msg.length();
+            msg.release();
+        }
+        return length;
+    }
+}
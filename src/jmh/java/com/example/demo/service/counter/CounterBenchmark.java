@@ -0,0 +1,67 @@
+package com.example.demo.service.counter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ThreadLocalController 各阶段计数方式的写入吞吐
+ * 1. synchronized：最初的加锁实现
+ * 2. atomicLong：单个CAS热点
+ * 3. longAdder：分段累加
+ * 4. counterServiceByName：CounterService按名称查找后累加
+ * 5. namedCounter：控制器当前的写法，缓存NamedCounter(LongAdder + 每秒速率)
+ * ./gradlew jmh -Pjmh.includes=CounterBenchmark
+ * @author Marion
+ * @date 2026/10/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(8)
+public class CounterBenchmark {
+
+    private final Object monitor = new Object();
+    private long syncCount;
+
+    private final AtomicLong atomicLong = new AtomicLong();
+    private final LongAdder longAdder = new LongAdder();
+
+    private final CounterService counterService = new CounterService();
+    private final NamedCounter namedCounter = counterService.counter("cached");
+
+    @Benchmark
+    public void synchronizedCount() {
+        synchronized (monitor) {
+            syncCount++;
+        }
+    }
+
+    @Benchmark
+    public void atomicLong() {
+        atomicLong.incrementAndGet();
+    }
+
+    @Benchmark
+    public void longAdder() {
+        longAdder.increment();
+    }
+
+    @Benchmark
+    public void counterServiceByName() {
+        counterService.increment("age");
+    }
+
+    @Benchmark
+    public void namedCounter() {
+        namedCounter.increment();
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.demo.service.juc;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * LockService.spinLock()/spinUnLock() 与 ReentrantLock 对比
+ * ./gradlew jmh -Pjmh.includes=LockServiceBenchmark
+ * @author Marion
+ * @date 2026/10/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(4)
+public class LockServiceBenchmark {
+
+    private final LockService lockService = new LockService();
+    private final ReentrantLock reentrantLock = new ReentrantLock();
+    private long counter;
+
+    /**
+     * 没有logback配置文件时默认DEBUG，关闭LockService的调试日志
+     */
+    @Setup
+    public void setUp() {
+        ((Logger) LoggerFactory.getLogger(LockService.class)).setLevel(Level.INFO);
+    }
+
+    @Benchmark
+    public long lockServiceSpin() {
+        lockService.spinLock();
+        try {
+            return ++counter;
+        } finally {
+            lockService.spinUnLock();
+        }
+    }
+
+    @Benchmark
+    public long reentrant() {
+        reentrantLock.lock();
+        try {
+            return ++counter;
+        } finally {
+            reentrantLock.unlock();
+        }
+    }
+}
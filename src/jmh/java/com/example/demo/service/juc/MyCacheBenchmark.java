@@ -0,0 +1,141 @@
+package com.example.demo.service.juc;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * MyCache 读写混合吞吐
+ * 1. myCache：当前实现(LocalCache/Caffeine)
+ * 2. rwLock：原实现 HashMap + ReentrantReadWriteLock，作为对照
+ * 读多写少(readHeavy 7读1写)与读写均衡(balanced 4读4写)两种线程配比
+ * ./gradlew jmh -Pjmh.includes=MyCacheBenchmark
+ * @author Marion
+ * @date 2026/10/18
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MyCacheBenchmark {
+
+    private static final int KEYS = 1024;
+    private static final String[] KEY_NAMES = new String[KEYS];
+
+    static {
+        for (int i = 0; i < KEYS; i++) {
+            KEY_NAMES[i] = String.valueOf(i);
+        }
+    }
+
+    @Param({"myCache", "rwLock"})
+    public String impl;
+
+    private Cache cache;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        if ("rwLock".equals(impl)) {
+            cache = new RwLockCache();
+        } else {
+            LockService.MyCache myCache = new LockService().new MyCache();
+            cache = new Cache() {
+                @Override
+                public void put(String key, Object val) {
+                    myCache.put(key, val);
+                }
+
+                @Override
+                public Object get(String key) {
+                    return myCache.get(key);
+                }
+            };
+        }
+        for (String key : KEY_NAMES) {
+            cache.put(key, key);
+        }
+    }
+
+    @Benchmark
+    @Group("readHeavy")
+    @GroupThreads(7)
+    public Object readHeavyGet() {
+        return cache.get(randomKey());
+    }
+
+    @Benchmark
+    @Group("readHeavy")
+    @GroupThreads(1)
+    public void readHeavyPut() {
+        String key = randomKey();
+        cache.put(key, key);
+    }
+
+    @Benchmark
+    @Group("balanced")
+    @GroupThreads(4)
+    public Object balancedGet() {
+        return cache.get(randomKey());
+    }
+
+    @Benchmark
+    @Group("balanced")
+    @GroupThreads(4)
+    public void balancedPut() {
+        String key = randomKey();
+        cache.put(key, key);
+    }
+
+    private static String randomKey() {
+        return KEY_NAMES[ThreadLocalRandom.current().nextInt(KEYS)];
+    }
+
+    interface Cache {
+
+        void put(String key, Object val);
+
+        Object get(String key);
+    }
+
+    /**
+     * 原MyCache实现，去掉了每次读写的日志
+     */
+    static final class RwLockCache implements Cache {
+
+        private final Map<String, Object> map = new HashMap<>();
+        private final ReentrantReadWriteLock rwLock = new ReentrantReadWriteLock();
+
+        @Override
+        public void put(String key, Object val) {
+            rwLock.writeLock().lock();
+            try {
+                map.put(key, val);
+            } finally {
+                rwLock.writeLock().unlock();
+            }
+        }
+
+        @Override
+        public Object get(String key) {
+            rwLock.readLock().lock();
+            try {
+                return map.get(key);
+            } finally {
+                rwLock.readLock().unlock();
+            }
+        }
+    }
+}
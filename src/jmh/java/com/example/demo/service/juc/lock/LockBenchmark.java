@@ -0,0 +1,79 @@
+package com.example.demo.service.juc.lock;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 短临界区下各种锁的吞吐对比
+ * ./gradlew jmh -Pjmh.includes=LockBenchmark
+ * @author Marion
+ * @date 2026/10/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(4)
+public class LockBenchmark {
+
+    @Param({"reentrant", "spin", "mcs", "spinThenPark"})
+    public String type;
+
+    private BasicLock lock;
+    private long counter;
+
+    @Setup
+    public void setUp() {
+        switch (type) {
+            case "spin":
+                lock = new SpinLock();
+                break;
+            case "mcs":
+                lock = new McsLock();
+                break;
+            case "spinThenPark":
+                lock = new SpinThenParkLock();
+                break;
+            default:
+                lock = reentrant(new ReentrantLock());
+        }
+    }
+
+    @Benchmark
+    public long increment() {
+        lock.lock();
+        try {
+            return ++counter;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static BasicLock reentrant(ReentrantLock delegate) {
+        return new BasicLock() {
+            @Override
+            public void lock() {
+                delegate.lock();
+            }
+
+            @Override
+            public boolean tryLock() {
+                return delegate.tryLock();
+            }
+
+            @Override
+            public void unlock() {
+                delegate.unlock();
+            }
+        };
+    }
+}
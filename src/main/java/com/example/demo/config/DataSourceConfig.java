@@ -0,0 +1,73 @@
+package com.example.demo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 数据源配置，使用HikariCP连接池
+ * 1. 原来的max-idle/min-idle/initial-size/max-wait是tomcat-jdbc的配置项，Hikari下不生效
+ * 2. 未显式配置maximum-pool-size时，按Tomcat最大线程数和offload线程数估算连接池大小
+ * 3. spring.datasource.hikari.* 在创建后绑定，显式配置的值优先
+ * 4. 获取连接耗时(hikaricp.connections.acquire)、等待线程数(hikaricp.connections.pending)由actuator暴露
+ * @author Marion
+ * @date 2026/10/18
+ */
+@Slf4j
+@Configuration
+public class DataSourceConfig {
+
+    /**
+     * 与server.tomcat.threads.max保持一致
+     */
+    @Value("${server.tomcat.threads.max:200}")
+    private int tomcatMaxThreads;
+
+    /**
+     * 业务线程中同时持有连接的比例，线程大部分时间花在数据库之外
+     */
+    @Value("${datasource.pool.db-time-share:0.1}")
+    private double dbTimeShare;
+
+    /**
+     * 估算值的上限，连接数超过数据库核心数的几倍后吞吐不升反降
+     */
+    @Value("${datasource.pool.max-size-cap:64}")
+    private int maxSizeCap;
+
+    /**
+     * 设备帧批量落库独占的连接数
+     */
+    @Value("${datasource.pool.reserved-for-writer:1}")
+    private int reservedForWriter;
+
+    private final NettyServerConfig nettyConfig;
+
+    public DataSourceConfig(NettyServerConfig nettyConfig) {
+        this.nettyConfig = nettyConfig;
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setMaximumPoolSize(poolSize());
+        return dataSource;
+    }
+
+    /**
+     * (Tomcat线程 + offload线程) * 持有连接比例 + 落库线程，限制在[2, maxSizeCap]
+     */
+    int poolSize() {
+        int workers = tomcatMaxThreads + nettyConfig.getOffloadThreads();
+        int size = (int) Math.ceil(workers * dbTimeShare) + reservedForWriter;
+        size = Math.max(2, Math.min(size, maxSizeCap));
+        log.info("hikari maximumPoolSize={} (tomcat={}, offload={}, share={})",
+                size, tomcatMaxThreads, nettyConfig.getOffloadThreads(), dbTimeShare);
+        return size;
+    }
+}
@@ -2,9 +2,11 @@ package com.example.demo.config;
 
 import io.netty.channel.group.ChannelGroup;
 import io.netty.channel.group.DefaultChannelGroup;
+import io.netty.handler.codec.http.websocketx.WebSocketServerHandshakerFactory;
 import io.netty.util.concurrent.GlobalEventExecutor;
 import lombok.Getter;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 /**
@@ -19,6 +21,262 @@ public class NettyServerConfig {
     @Getter
     private int port;
 
+    /**
+     * 传输层：auto/epoll/nio，auto在Linux上优先使用epoll
+     */
+    @Value("${netty.transport:auto}")
+    @Getter
+    private String transport;
+
+    /**
+     * epoll模式下通过SO_REUSEPORT绑定的监听socket数量，0表示CPU核心数
+     */
+    @Value("${netty.acceptors:0}")
+    private int acceptors;
+
+    /**
+     * worker线程数，0表示CPU核心数-1
+     */
+    @Value("${netty.worker-threads:0}")
+    private int workerThreads;
+
+    /**
+     * 已完成三次握手等待accept的队列长度，实际生效值受net.core.somaxconn限制
+     */
+    @Value("${netty.backlog:1024}")
+    @Getter
+    private int backlog;
+
+    /**
+     * 单帧最大长度(包头+包体)，超出的帧直接丢弃
+     */
+    @Value("${netty.max-frame-length:65536}")
+    @Getter
+    private int maxFrameLength;
+
+    /**
+     * AdaptiveRecvByteBufAllocator 每次读取分配的最小/初始/最大缓冲区
+     */
+    @Value("${netty.recv-buf.minimum:64}")
+    @Getter
+    private int recvBufMinimum;
+
+    @Value("${netty.recv-buf.initial:1024}")
+    @Getter
+    private int recvBufInitial;
+
+    @Value("${netty.recv-buf.maximum:65536}")
+    @Getter
+    private int recvBufMaximum;
+
+    /**
+     * 每个连接的socket接收/发送缓冲区，0表示使用系统默认值(内核自动调整)
+     */
+    @Value("${netty.so-rcvbuf:0}")
+    @Getter
+    private int soRcvbuf;
+
+    @Value("${netty.so-sndbuf:0}")
+    @Getter
+    private int soSndbuf;
+
+    /**
+     * 设备连接发送缓冲高/低水位，超过高水位时连接不可写并暂停读取，回落到低水位后恢复
+     */
+    @Value("${netty.write-buffer.high-water-mark:65536}")
+    @Getter
+    private int writeBufferHighWaterMark;
+
+    @Value("${netty.write-buffer.low-water-mark:32768}")
+    @Getter
+    private int writeBufferLowWaterMark;
+
+    /**
+     * 累计多少次flush后立即写出；不在读取过程中的flush是否合并到EventLoop的下一个任务
+     */
+    @Value("${netty.flush.max-pending:256}")
+    @Getter
+    private int flushMaxPending;
+
+    @Value("${netty.flush.consolidate-when-idle:true}")
+    @Getter
+    private boolean flushConsolidateWhenIdle;
+
+    /**
+     * 设备帧限流：每个连接、每种devType的持续速率(帧/秒)及突发量，超限时暂停读取
+     */
+    @Value("${netty.rate-limit.enabled:true}")
+    @Getter
+    private boolean rateLimitEnabled;
+
+    @Value("${netty.rate-limit.connection.frames-per-second:1000}")
+    @Getter
+    private double rateLimitConnectionFramesPerSecond;
+
+    @Value("${netty.rate-limit.connection.burst:2000}")
+    @Getter
+    private int rateLimitConnectionBurst;
+
+    @Value("${netty.rate-limit.dev-type.frames-per-second:200000}")
+    @Getter
+    private double rateLimitDevTypeFramesPerSecond;
+
+    @Value("${netty.rate-limit.dev-type.burst:400000}")
+    @Getter
+    private int rateLimitDevTypeBurst;
+
+    /**
+     * 接入控制：每秒接入连接数及突发量，超限时暂停accept；连接总数上限，超过时直接关闭
+     */
+    @Value("${netty.accept.connections-per-second:5000}")
+    @Getter
+    private double acceptConnectionsPerSecond;
+
+    @Value("${netty.accept.burst:1000}")
+    @Getter
+    private int acceptBurst;
+
+    @Value("${netty.accept.max-connections:100000}")
+    @Getter
+    private int acceptMaxConnections;
+
+    /**
+     * 停机时等待在途帧处理完毕的最长时间
+     */
+    @Value("${netty.shutdown.drain-timeout-millis:10000}")
+    @Getter
+    private long drainTimeoutMillis;
+
+    /**
+     * 业务线程池大小，0表示CPU核心数*2
+     */
+    @Value("${netty.offload.threads:0}")
+    private int offloadThreads;
+
+    /**
+     * 业务线程池等待队列长度
+     */
+    @Value("${netty.offload.queue-capacity:10000}")
+    @Getter
+    private int offloadQueueCapacity;
+
+    /**
+     * JDK支持时使用虚拟线程处理业务
+     */
+    @Value("${netty.offload.virtual-threads:false}")
+    @Getter
+    private boolean offloadVirtualThreads;
+
+    /**
+     * 单个连接积压消息达到高水位时暂停读取，回落到低水位时恢复
+     */
+    @Value("${netty.offload.channel-high-water-mark:256}")
+    @Getter
+    private int offloadChannelHighWaterMark;
+
+    @Value("${netty.offload.channel-low-water-mark:64}")
+    @Getter
+    private int offloadChannelLowWaterMark;
+
+    /**
+     * 连接空闲超过该时间发送PING
+     */
+    @Value("${netty.heartbeat.reader-idle-seconds:60}")
+    @Getter
+    private long heartbeatReaderIdleSeconds;
+
+    /**
+     * 连续多少次PING无响应后驱逐连接
+     */
+    @Value("${netty.heartbeat.max-missed-pings:2}")
+    @Getter
+    private int heartbeatMaxMissedPings;
+
+    /**
+     * 每秒最多驱逐的连接数
+     */
+    @Value("${netty.heartbeat.evict-batch-size:1000}")
+    @Getter
+    private int heartbeatEvictBatchSize;
+
+    /**
+     * 时间轮每格的时长，决定超时检查的精度
+     */
+    @Value("${netty.heartbeat.tick-millis:1000}")
+    @Getter
+    private long heartbeatTickMillis;
+
+    /**
+     * WebSocket服务端口及路径
+     */
+    @Value("${netty.websocket.port:8888}")
+    @Getter
+    private int webSocketPort;
+
+    @Value("${netty.websocket.path:/websocket}")
+    @Getter
+    private String webSocketPath;
+
+    /**
+     * 握手时返回给客户端的地址，部署在代理之后时配置为对外地址
+     */
+    @Value("${netty.websocket.url:ws://localhost:8888/websocket}")
+    @Getter
+    private String webSocketUrl;
+
+    /**
+     * 单个WebSocket帧及握手请求的最大长度
+     */
+    @Value("${netty.websocket.max-frame-payload-length:65536}")
+    @Getter
+    private int webSocketMaxFramePayloadLength;
+
+    /**
+     * 分片帧聚合后的最大消息长度
+     */
+    @Value("${netty.websocket.max-message-length:1048576}")
+    @Getter
+    private int webSocketMaxMessageLength;
+
+    /**
+     * 是否支持permessage-deflate压缩，由客户端在握手时协商
+     */
+    @Value("${netty.websocket.compression:true}")
+    @Getter
+    private boolean webSocketCompression;
+
+    /**
+     * WebSocket连接发送缓冲高低水位，超过高水位的慢客户端不再接收广播
+     */
+    @Value("${netty.websocket.write-buffer-high-water-mark:65536}")
+    @Getter
+    private int webSocketWriteBufferHighWaterMark;
+
+    @Value("${netty.websocket.write-buffer-low-water-mark:32768}")
+    @Getter
+    private int webSocketWriteBufferLowWaterMark;
+
+    /**
+     * 所有WebSocket连接共享一个握手工厂，工厂本身无状态、线程安全
+     * 开启压缩时允许扩展，否则握手会拒绝permessage-deflate
+     */
+    @Bean
+    public WebSocketServerHandshakerFactory webSocketServerHandshakerFactory() {
+        return new WebSocketServerHandshakerFactory(webSocketUrl, null, webSocketCompression, webSocketMaxFramePayloadLength);
+    }
+
+    public int getAcceptors() {
+        return acceptors > 0 ? acceptors : Runtime.getRuntime().availableProcessors();
+    }
+
+    public int getWorkerThreads() {
+        return workerThreads > 0 ? workerThreads : Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+    }
+
+    public int getOffloadThreads() {
+        return offloadThreads > 0 ? offloadThreads : Runtime.getRuntime().availableProcessors() * 2;
+    }
+
     /**
      * 存储每一个客户端接入进来时的channel对象
      */
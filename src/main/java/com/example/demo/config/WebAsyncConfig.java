@@ -0,0 +1,69 @@
+package com.example.demo.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+/**
+ * 异步请求配置
+ * 1. 等待类操作(延时、远程调用)返回DeferredResult/CompletableFuture，Tomcat线程立即归还，
+ *    等待由共享的调度线程完成，吞吐不再受 server.tomcat.threads.max 限制
+ * 2. web.async.virtual-threads=true 且JDK支持时，Tomcat使用虚拟线程处理请求，阻塞写法也不会耗尽线程
+ * @author Marion
+ * @date 2026/10/18
+ */
+@Slf4j
+@Configuration
+public class WebAsyncConfig implements WebMvcConfigurer {
+
+    /**
+     * 异步请求超时时间
+     */
+    @Value("${web.async.timeout-millis:10000}")
+    private long asyncTimeoutMillis;
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setDefaultTimeout(asyncTimeoutMillis);
+    }
+
+    /**
+     * 共享的延时调度线程，只做定时和结果回调，不执行阻塞操作
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ScheduledExecutorService delayScheduler() {
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1,
+                new CustomizableThreadFactory("async-delay-"));
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+
+    /**
+     * 每个请求一个虚拟线程，JDK不支持时保持Tomcat默认线程池
+     */
+    @Bean
+    @ConditionalOnProperty(name = "web.async.virtual-threads", havingValue = "true")
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> {
+            try {
+                ExecutorService virtual = (ExecutorService) Executors.class
+                        .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+                protocolHandler.setExecutor(virtual);
+                log.info("Tomcat请求使用虚拟线程处理");
+            } catch (ReflectiveOperationException e) {
+                log.warn("当前JDK不支持虚拟线程，Tomcat使用平台线程池");
+            }
+        };
+    }
+}
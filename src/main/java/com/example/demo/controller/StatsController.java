@@ -0,0 +1,66 @@
+package com.example.demo.controller;
+
+import com.example.demo.service.counter.CounterService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 轻量统计接口，不依赖actuator的端点暴露配置
+ * 1. 计数器总数与最近的每秒速率
+ * 2. /add、/add/async 与设备消息处理的滑动窗口耗时百分位(ms)
+ * 3. 获取数据库连接的耗时百分位(ms)及等待连接的线程数
+ * 查询：curl localhost:8087/stats
+ * @author Marion
+ * @date 2026/10/18
+ */
+@RestController
+public class StatsController {
+
+    private final CounterService counterService;
+    private final MeterRegistry meterRegistry;
+
+    public StatsController(CounterService counterService, MeterRegistry meterRegistry) {
+        this.counterService = counterService;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @RequestMapping("/stats")
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("counters", counterService.snapshot());
+        stats.put("rates", counterService.rates());
+        stats.put("add", latency(meterRegistry.find("http.server.requests").tag("uri", "/add").timer()));
+        stats.put("addAsync", latency(meterRegistry.find("http.server.requests").tag("uri", "/add/async").timer()));
+        stats.put("frame", latency(meterRegistry.find("netty.frame.handle").timer()));
+        Map<String, Object> dbAcquire = latency(meterRegistry.find("hikaricp.connections.acquire").timer());
+        Gauge pending = meterRegistry.find("hikaricp.connections.pending").gauge();
+        if (pending != null) {
+            dbAcquire.put("pending", pending.value());
+        }
+        stats.put("dbAcquire", dbAcquire);
+        return stats;
+    }
+
+    private static Map<String, Object> latency(Timer timer) {
+        Map<String, Object> latency = new LinkedHashMap<>();
+        if (timer == null) {
+            return latency;
+        }
+        HistogramSnapshot snapshot = timer.takeSnapshot();
+        latency.put("count", snapshot.count());
+        latency.put("max", snapshot.max(TimeUnit.MILLISECONDS));
+        for (ValueAtPercentile p : snapshot.percentileValues()) {
+            latency.put("p" + p.percentile(), p.value(TimeUnit.MILLISECONDS));
+        }
+        return latency;
+    }
+}
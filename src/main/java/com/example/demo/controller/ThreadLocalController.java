@@ -1,72 +1,107 @@
 package com.example.demo.controller;
 
-import com.example.demo.model.Val;
+import com.example.demo.service.counter.CounterService;
+import com.example.demo.service.counter.NamedCounter;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
 
-import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
- * 测试多线程ThreadLocal
+ * 测试多线程计数
  * 1. ab工具命令 ab -n1000 -c 100 localhost:8087/add
  * 2. 查询结果：curl localhost:8087/get
+ * 3. 所有计数器：curl localhost:8087/counters
+ * 4. 异步版本：/add/async(DeferredResult)、/add/future(CompletableFuture)，
+ *    100ms等待由共享调度线程完成，不占用Tomcat线程
+ *    对比：./gradlew loadTest -Dload.mode=http -Dload.path=/add -Dload.connections=1000 -Dload.rate=5000
+ *          ./gradlew loadTest -Dload.mode=http -Dload.path=/add/async -Dload.connections=1000 -Dload.rate=5000
+ *
+ * 演进过程：
+ * 1. synchronized加锁：所有写线程串行
+ * 2. ThreadLocal + 全局HashSet汇总：线程销毁后Val仍留在集合中，内存泄漏；读取时需要同步遍历
+ * 3. 当前：CounterService(LongAdder分段累加)，写入无锁无装箱，读取无锁求和
  * @author Marion
  * @date 2021/4/24
  */
 @RestController
 public class ThreadLocalController {
 
-    private static int age = 0;
+    private static final String AGE = "age";
 
     /**
-     * 注意Val不能重写HashCode，会导致多线程安全问题
+     * 模拟I/O等待
      */
-    private static HashSet<Val<Integer>> ageContainer = new HashSet<>();
+    private static final long ADD_DELAY_MILLIS = 100L;
+
+    private final CounterService counterService;
 
     /**
-     * 加锁解决线程安全问题
+     * 热点路径缓存计数器，省去按名称查找
      */
-    private static synchronized void lockAdd() {
-        age++;
-    }
+    private final NamedCounter age;
 
     /**
-     * 通过ThreadLocal解决线程安全问题
+     * 共享延时调度线程，见 WebAsyncConfig
      */
-    private static ThreadLocal<Val<Integer>> at = ThreadLocal.withInitial(() -> {
-        Val<Integer> am = new Val<>();
-        am.set(0);
-        // 1. 并发线程不安全
-        // ageContainer.add(am);
+    private final ScheduledExecutorService delayScheduler;
 
-        addAge(am);
-        return am;
-    });
+    public ThreadLocalController(CounterService counterService, ScheduledExecutorService delayScheduler) {
+        this.counterService = counterService;
+        this.age = counterService.counter(AGE);
+        this.delayScheduler = delayScheduler;
+    }
 
     /**
-     * 解决添加并发线程安全问题
+     * 阻塞版本，等待期间占用Tomcat线程，吞吐上限约为 threads.max / 0.1s
      */
-    static synchronized void addAge(Val<Integer> val) {
-        ageContainer.add(val);
+    private void incAgeLocal() throws InterruptedException {
+        Thread.sleep(ADD_DELAY_MILLIS);
+        age.increment();
     }
 
-    private static void incAgeLocal() throws InterruptedException {
-        Thread.sleep(100L);
-        Val<Integer> v = at.get();
-        v.set(v.get() + 1);
+    /**
+     * 非阻塞版本，到期后在调度线程中计数
+     */
+    private CompletableFuture<Integer> incAgeDelayed() {
+        CompletableFuture<Integer> future = new CompletableFuture<>();
+        delayScheduler.schedule(() -> {
+            age.increment();
+            future.complete(1);
+        }, ADD_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        return future;
     }
 
     @RequestMapping("/get")
-    public int getAge() {
-        return ageContainer.stream().map(Val::get).reduce((a, x) -> a + x).get();
+    public long getAge() {
+        return counterService.sum(AGE);
     }
 
     @RequestMapping("/add")
     public int incAge() throws InterruptedException {
-        // lockAdd();
         incAgeLocal();
-        System.out.println(Thread.currentThread().getName());
         return 1;
     }
 
+    @RequestMapping("/add/async")
+    public DeferredResult<Integer> incAgeAsync() {
+        DeferredResult<Integer> result = new DeferredResult<>();
+        incAgeDelayed().thenAccept(result::setResult);
+        return result;
+    }
+
+    @RequestMapping("/add/future")
+    public CompletableFuture<Integer> incAgeFuture() {
+        return incAgeDelayed();
+    }
+
+    @RequestMapping("/counters")
+    public Map<String, Long> counters() {
+        return counterService.snapshot();
+    }
+
 }
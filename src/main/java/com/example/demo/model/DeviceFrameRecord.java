@@ -0,0 +1,50 @@
+package com.example.demo.model;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+/**
+ * 设备上报帧
+ * 写入走DeviceFrameWriter的JDBC批量插入(IDENTITY主键下Hibernate无法批量insert)，查询走JPA
+ * @author Marion
+ * @date 2026/10/18
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "device_frame", indexes = @Index(name = "idx_serial_received", columnList = "serial,received_at"))
+public class DeviceFrameRecord {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private int serial;
+
+    @Column(name = "dev_type", nullable = false)
+    private short devType;
+
+    @Column(name = "frame_mode", nullable = false)
+    private short mode;
+
+    @Column(nullable = false)
+    private short ver;
+
+    @Column(length = 65536)
+    private byte[] body;
+
+    /**
+     * 接收时间，毫秒时间戳
+     */
+    @Column(name = "received_at", nullable = false)
+    private long receivedAt;
+}
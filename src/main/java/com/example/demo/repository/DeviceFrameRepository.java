@@ -0,0 +1,16 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.DeviceFrameRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+/**
+ * 设备上报帧查询
+ * @author Marion
+ * @date 2026/10/18
+ */
+public interface DeviceFrameRepository extends JpaRepository<DeviceFrameRecord, Long> {
+
+    List<DeviceFrameRecord> findTop100BySerialOrderByReceivedAtDesc(int serial);
+}
@@ -0,0 +1,172 @@
+package com.example.demo.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * 进程内高并发缓存，基于Caffeine
+ * 1. 底层是分段的ConcurrentHashMap，读不加锁，写只锁单个桶
+ * 2. 容量有界，W-TinyLFU淘汰：频率低的新数据不会挤掉热点数据
+ * 3. 支持写入后过期(TTL)和写入后异步刷新，刷新期间继续返回旧值
+ * 4. 同一个key并发未命中时只执行一次加载(single-flight)，其他线程等待结果
+ * 5. 记录命中/未命中/加载耗时，可注册到actuator(cache.gets/cache.puts/...)
+ * @author Marion
+ * @date 2026/10/18
+ */
+public class LocalCache<K, V> {
+
+    private final String name;
+    private final Cache<K, V> cache;
+    private final LoadingCache<K, V> loadingCache;
+
+    private LocalCache(String name, Cache<K, V> cache, LoadingCache<K, V> loadingCache) {
+        this.name = name;
+        this.cache = cache;
+        this.loadingCache = loadingCache;
+    }
+
+    public static <K, V> Builder<K, V> builder(String name) {
+        return new Builder<>(name);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /**
+     * 使用构建时指定的loader加载，未指定loader时等同于getIfPresent
+     */
+    public V get(K key) {
+        return loadingCache != null ? loadingCache.get(key) : cache.getIfPresent(key);
+    }
+
+    /**
+     * 未命中时使用指定loader加载，loader返回null时不缓存
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        return cache.get(key, loader);
+    }
+
+    public Map<K, V> getAllPresent(Iterable<K> keys) {
+        return cache.getAllPresent(keys);
+    }
+
+    public V getIfPresent(K key) {
+        return cache.getIfPresent(key);
+    }
+
+    public void put(K key, V value) {
+        cache.put(key, value);
+    }
+
+    public void invalidate(K key) {
+        cache.invalidate(key);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public long estimatedSize() {
+        return cache.estimatedSize();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * 执行挂起的淘汰等维护任务，测试时使用
+     */
+    public void cleanUp() {
+        cache.cleanUp();
+    }
+
+    /**
+     * 注册命中率等指标，tag cache=name
+     */
+    public LocalCache<K, V> bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, name);
+        return this;
+    }
+
+    public static final class Builder<K, V> {
+
+        private final String name;
+        private long maximumSize = 10_000;
+        private Duration expireAfterWrite;
+        private Duration refreshAfterWrite;
+        private Executor executor;
+        private Function<? super K, ? extends V> loader;
+
+        private Builder(String name) {
+            this.name = name;
+        }
+
+        public Builder<K, V> maximumSize(long maximumSize) {
+            this.maximumSize = maximumSize;
+            return this;
+        }
+
+        public Builder<K, V> expireAfterWrite(Duration expireAfterWrite) {
+            this.expireAfterWrite = expireAfterWrite;
+            return this;
+        }
+
+        /**
+         * 写入超过指定时间后，下一次读取触发异步刷新，需要同时指定loader
+         */
+        public Builder<K, V> refreshAfterWrite(Duration refreshAfterWrite) {
+            this.refreshAfterWrite = refreshAfterWrite;
+            return this;
+        }
+
+        /**
+         * 淘汰、刷新等异步任务的执行器，默认ForkJoinPool.commonPool()
+         */
+        public Builder<K, V> executor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        public Builder<K, V> loader(Function<? super K, ? extends V> loader) {
+            this.loader = loader;
+            return this;
+        }
+
+        public LocalCache<K, V> build() {
+            Caffeine<Object, Object> caffeine = Caffeine.newBuilder()
+                    .maximumSize(maximumSize)
+                    .recordStats();
+            if (expireAfterWrite != null) {
+                caffeine.expireAfterWrite(expireAfterWrite);
+            }
+            if (executor != null) {
+                caffeine.executor(executor);
+            }
+
+            if (loader == null) {
+                if (refreshAfterWrite != null) {
+                    throw new IllegalStateException("refreshAfterWrite requires a loader");
+                }
+                return new LocalCache<>(name, caffeine.build(), null);
+            }
+
+            if (refreshAfterWrite != null) {
+                caffeine.refreshAfterWrite(refreshAfterWrite);
+            }
+            Function<? super K, ? extends V> load = loader;
+            LoadingCache<K, V> loadingCache = caffeine.build(load::apply);
+            return new LocalCache<>(name, loadingCache, loadingCache);
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.example.demo.service.cache;
+
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.core.types.Expiration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * 两级缓存：L1进程内LocalCache + L2 Redis
+ * 1. 读：L1 -> L2 -> 数据源，同一个key并发未命中时本节点只有一个线程加载，其他线程等待同一个Future
+ * 2. 防击穿：L2也未命中时通过SET NX抢占加载锁，集群内只有一个节点访问数据源，其他节点短暂等待L2结果；
+ *    等待在Caffeine的compute之外进行，不会长时间占住L1的哈希桶锁
+ * 3. 加载锁的值为{nodeId}:{序号}，释放时通过Lua脚本比较后删除，锁过期后被其他节点抢到时不会误删
+ * 4. 批量读：L1未命中的key合并为一次MGET
+ * 5. 写：批量写通过pipeline一次往返完成；写入和删除后通过pub/sub通知其他节点删除L1
+ * 值统一为String，序列化由调用方决定
+ * @author Marion
+ * @date 2026/10/18
+ */
+public class NearCache {
+
+    /**
+     * 等待其他节点加载时轮询L2的次数和间隔
+     */
+    private static final int LOCK_WAIT_TIMES = 10;
+    private static final long LOCK_WAIT_MILLIS = 50L;
+    private static final Duration LOCK_TTL = Duration.ofSeconds(5);
+
+    /**
+     * 值与本节点持有的令牌一致时才删除
+     */
+    private static final RedisScript<Long> RELEASE_LOCK_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private static final AtomicLong LOCK_SEQ = new AtomicLong();
+
+    private final String name;
+    private final String keyPrefix;
+    private final LocalCache<String, String> l1;
+    private final StringRedisTemplate redis;
+    private final Duration ttl;
+    private final NearCacheManager manager;
+
+    /**
+     * 本节点正在加载的key，同一个key的并发未命中等待同一个结果
+     */
+    private final ConcurrentHashMap<String, CompletableFuture<String>> loading = new ConcurrentHashMap<>();
+
+    NearCache(String name, LocalCache<String, String> l1, StringRedisTemplate redis, Duration ttl, NearCacheManager manager) {
+        this.name = name;
+        this.keyPrefix = "near:" + name + ":";
+        this.l1 = l1;
+        this.redis = redis;
+        this.ttl = ttl;
+        this.manager = manager;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /**
+     * 读取，L1/L2都未命中时调用loader从数据源加载并回填两级缓存
+     */
+    public String get(String key, Function<String, String> loader) {
+        String value = l1.getIfPresent(key);
+        if (value != null) {
+            return value;
+        }
+
+        CompletableFuture<String> future = new CompletableFuture<>();
+        CompletableFuture<String> inFlight = loading.putIfAbsent(key, future);
+        if (inFlight != null) {
+            try {
+                return inFlight.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+
+        try {
+            value = loadFromL2(key, loader);
+            if (value != null) {
+                l1.put(key, value);
+            }
+            future.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, future);
+        }
+    }
+
+    /**
+     * 批量读取，只返回命中的key，不访问数据源
+     */
+    public Map<String, String> getAll(Collection<String> keys) {
+        Map<String, String> result = new HashMap<>(l1.getAllPresent(keys));
+        if (result.size() == keys.size()) {
+            return result;
+        }
+
+        List<String> missing = new ArrayList<>(keys.size() - result.size());
+        List<String> redisKeys = new ArrayList<>(keys.size() - result.size());
+        for (String key : keys) {
+            if (!result.containsKey(key)) {
+                missing.add(key);
+                redisKeys.add(keyPrefix + key);
+            }
+        }
+
+        List<String> values = redis.opsForValue().multiGet(redisKeys);
+        if (values != null) {
+            for (int i = 0; i < missing.size(); i++) {
+                String value = values.get(i);
+                if (value != null) {
+                    l1.put(missing.get(i), value);
+                    result.put(missing.get(i), value);
+                }
+            }
+        }
+        return result;
+    }
+
+    public void put(String key, String value) {
+        redis.opsForValue().set(keyPrefix + key, value, ttl);
+        l1.put(key, value);
+        manager.publishInvalidation(name, key);
+    }
+
+    /**
+     * 批量写入，SET和失效通知在同一个pipeline中发送
+     */
+    public void putAll(Map<String, String> values) {
+        Expiration expiration = Expiration.from(ttl.toMillis(), TimeUnit.MILLISECONDS);
+        redis.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            values.forEach((key, value) -> {
+                conn.set(keyPrefix + key, value, expiration, RedisStringCommands.SetOption.UPSERT);
+                conn.publish(NearCacheManager.INVALIDATION_CHANNEL, manager.invalidationMessage(name, key));
+            });
+            return null;
+        });
+        values.forEach(l1::put);
+    }
+
+    public void invalidate(String key) {
+        redis.delete(keyPrefix + key);
+        l1.invalidate(key);
+        manager.publishInvalidation(name, key);
+    }
+
+    /**
+     * 其他节点修改了数据，只删除本地L1
+     */
+    void invalidateLocal(String key) {
+        l1.invalidate(key);
+    }
+
+    public LocalCache<String, String> local() {
+        return l1;
+    }
+
+    private String loadFromL2(String key, Function<String, String> loader) {
+        String redisKey = keyPrefix + key;
+        String value = redis.opsForValue().get(redisKey);
+        if (value != null) {
+            return value;
+        }
+
+        /**
+         * 抢到加载锁的节点访问数据源，其他节点等待L2被回填，等待超时后自行加载
+         */
+        String lockKey = redisKey + ":lock";
+        String token = manager.nodeId() + ":" + LOCK_SEQ.incrementAndGet();
+        Boolean locked = redis.opsForValue().setIfAbsent(lockKey, token, LOCK_TTL);
+        if (!Boolean.TRUE.equals(locked)) {
+            for (int i = 0; i < LOCK_WAIT_TIMES; i++) {
+                try {
+                    Thread.sleep(LOCK_WAIT_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                value = redis.opsForValue().get(redisKey);
+                if (value != null) {
+                    return value;
+                }
+            }
+        }
+
+        try {
+            value = loader.apply(key);
+            if (value != null) {
+                redis.opsForValue().set(redisKey, value, ttl);
+            }
+            return value;
+        } finally {
+            if (Boolean.TRUE.equals(locked)) {
+                redis.execute(RELEASE_LOCK_SCRIPT, Collections.singletonList(lockKey), token);
+            }
+        }
+    }
+}
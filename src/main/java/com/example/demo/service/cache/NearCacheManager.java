@@ -0,0 +1,92 @@
+package com.example.demo.service.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 两级缓存管理，负责创建NearCache以及跨节点的L1失效通知
+ * 失效消息格式：{nodeId}|{cacheName}|{key}，本节点发出的消息在收到时忽略
+ * @author Marion
+ * @date 2026/10/18
+ */
+@Slf4j
+@Component
+public class NearCacheManager implements MessageListener {
+
+    public static final String INVALIDATION_CHANNEL = "near-cache:invalidate";
+
+    private static final char SEPARATOR = '|';
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final ConcurrentMap<String, NearCache> caches = new ConcurrentHashMap<>();
+    private final StringRedisTemplate redis;
+    private final MeterRegistry meterRegistry;
+
+    public NearCacheManager(StringRedisTemplate redis, RedisMessageListenerContainer listenerContainer,
+                            MeterRegistry meterRegistry) {
+        this.redis = redis;
+        this.meterRegistry = meterRegistry;
+        listenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATION_CHANNEL));
+    }
+
+    /**
+     * 获取或创建两级缓存
+     * @param maximumSize L1最大条目数
+     * @param ttl L1及L2的过期时间
+     */
+    public NearCache getOrCreate(String name, long maximumSize, Duration ttl) {
+        return caches.computeIfAbsent(name, k -> {
+            LocalCache<String, String> l1 = LocalCache.<String, String>builder("near:" + k)
+                    .maximumSize(maximumSize)
+                    .expireAfterWrite(ttl)
+                    .build()
+                    .bindTo(meterRegistry);
+            return new NearCache(k, l1, redis, ttl, this);
+        });
+    }
+
+    String nodeId() {
+        return nodeId;
+    }
+
+    String invalidationMessage(String cacheName, String key) {
+        return nodeId + SEPARATOR + cacheName + SEPARATOR + key;
+    }
+
+    void publishInvalidation(String cacheName, String key) {
+        redis.convertAndSend(INVALIDATION_CHANNEL, invalidationMessage(cacheName, key));
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int first = body.indexOf(SEPARATOR);
+        int second = first < 0 ? -1 : body.indexOf(SEPARATOR, first + 1);
+        if (second < 0) {
+            log.warn("忽略格式错误的缓存失效消息 {}", body);
+            return;
+        }
+
+        // 自己发出的消息，本地已经处理过
+        if (body.regionMatches(0, nodeId, 0, first) && first == nodeId.length()) {
+            return;
+        }
+
+        NearCache cache = caches.get(body.substring(first + 1, second));
+        if (cache != null) {
+            cache.invalidateLocal(body.substring(second + 1));
+        }
+    }
+}
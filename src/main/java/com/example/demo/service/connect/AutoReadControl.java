@@ -0,0 +1,95 @@
+package com.example.demo.service.connect;
+
+import io.netty.channel.Channel;
+import io.netty.util.AttributeKey;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 按原因控制连接的autoRead
+ * 多个组件都可能暂停读取(业务积压、停机、对端不读取、限流等)，只有所有原因都解除后才恢复读取，
+ * 避免一个组件恢复读取时覆盖另一个组件的暂停
+ * @author Marion
+ * @date 2026/10/18
+ */
+public final class AutoReadControl {
+
+    /**
+     * 业务线程池积压
+     */
+    public static final int OFFLOAD = 1;
+    /**
+     * 服务器停机
+     */
+    public static final int SHUTDOWN = 1 << 1;
+    /**
+     * 发送缓冲超过高水位，对端读取过慢
+     */
+    public static final int WRITABILITY = 1 << 2;
+    /**
+     * 超出速率限制；也用于监听socket暂停accept
+     */
+    public static final int RATE_LIMIT = 1 << 3;
+
+    private static final AttributeKey<AtomicInteger> SUSPENDED = AttributeKey.valueOf("autoReadSuspended");
+
+    private AutoReadControl() {
+    }
+
+    /**
+     * 以指定原因暂停读取
+     */
+    public static void suspend(Channel channel, int reason) {
+        AtomicInteger mask = mask(channel);
+        int prev;
+        do {
+            prev = mask.get();
+            if ((prev & reason) != 0) {
+                return;
+            }
+        } while (!mask.compareAndSet(prev, prev | reason));
+        apply(channel, mask);
+    }
+
+    /**
+     * 解除指定原因，没有其他原因时恢复读取
+     */
+    public static void resume(Channel channel, int reason) {
+        AtomicInteger mask = mask(channel);
+        int prev;
+        do {
+            prev = mask.get();
+            if ((prev & reason) == 0) {
+                return;
+            }
+        } while (!mask.compareAndSet(prev, prev & ~reason));
+        apply(channel, mask);
+    }
+
+    public static boolean isSuspended(Channel channel, int reason) {
+        return (mask(channel).get() & reason) != 0;
+    }
+
+    /**
+     * 在I/O线程中按执行时的最新状态设置autoRead，并发的暂停/恢复以最后执行的为准
+     */
+    private static void apply(Channel channel, AtomicInteger mask) {
+        if (channel.eventLoop().inEventLoop()) {
+            channel.config().setAutoRead(mask.get() == 0);
+        } else {
+            channel.eventLoop().execute(() -> channel.config().setAutoRead(mask.get() == 0));
+        }
+    }
+
+    private static AtomicInteger mask(Channel channel) {
+        AtomicInteger mask = channel.attr(SUSPENDED).get();
+        if (mask == null) {
+            AtomicInteger created = new AtomicInteger();
+            mask = channel.attr(SUSPENDED).setIfAbsent(created);
+            if (mask == null) {
+                mask = created;
+            }
+        }
+        return mask;
+    }
+}
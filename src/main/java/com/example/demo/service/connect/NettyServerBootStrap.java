@@ -1,72 +1,175 @@
 package com.example.demo.service.connect;
 
 import com.example.demo.config.NettyServerConfig;
+import com.example.demo.service.connect.codec.DeviceFrameDecoder;
+import com.example.demo.service.connect.codec.InFlightFrames;
+import com.example.demo.service.connect.codec.DeviceMessageDecoder;
+import com.example.demo.service.connect.codec.DeviceMessageEncoder;
+import com.example.demo.service.connect.flush.FlushConsolidationHandler;
+import com.example.demo.service.connect.flush.FlushMetrics;
+import com.example.demo.service.connect.heartbeat.HeartbeatHandler;
+import com.example.demo.service.connect.limit.AcceptLimiter;
+import com.example.demo.service.connect.limit.FrameRateLimiter;
+import com.example.demo.service.connect.limit.RateLimitHandler;
+import com.example.demo.service.connect.route.DeviceRouteHandler;
+import com.example.demo.service.connect.transport.NettyTransport;
 import io.netty.bootstrap.ServerBootstrap;
 import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.channel.*;
-import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.group.ChannelGroup;
+import io.netty.channel.group.DefaultChannelGroup;
 import io.netty.channel.socket.SocketChannel;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
-import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
-import io.netty.handler.timeout.IdleStateHandler;
+import io.netty.util.concurrent.GlobalEventExecutor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
 import org.springframework.stereotype.Component;
 
-import javax.annotation.PostConstruct;
-import javax.annotation.PreDestroy;
 import javax.annotation.Resource;
-import java.nio.ByteOrder;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Netty 服务器配置
+ * 1. 由Spring容器管理生命周期，与Tomcat同一阶段启动，异步绑定端口不阻塞启动流程
+ * 2. 停机时先关闭监听socket，再停止读取并等待在途帧处理完毕，最后flush并释放线程组
  * @author Marion
  * @date 2021/5/2
  */
 @Slf4j
-public class NettyServerBootStrap {
+@Component
+public class NettyServerBootStrap implements SmartLifecycle {
 
     /**
      * 创建bootstrap 是一个启动NIO服务的辅助启动类
      */
     private ServerBootstrap bootstrap = new ServerBootstrap();
     /**
-     * BOSS 用来接收进来的连接 默认的线程数是2*cpu ，基于Netty主从多线程模型 ，
-     *所以 主线程设置为1 ，减少资源的浪费
+     * BOSS 用来接收进来的连接，基于Netty主从多线程模型，
+     * nio模式只有一个监听socket，线程数为1；epoll模式每个SO_REUSEPORT监听socket对应一个线程
      */
-    private EventLoopGroup bossGroup = new NioEventLoopGroup( 1 );
+    private EventLoopGroup bossGroup;
     /**
      * Worker 用来处理已经被接收的连接 默认的线程数是 2*cpu核心数 ,我们使用CPU核心数-1，
      减少CPU的切换，来提高性能
      */
-    private EventLoopGroup workerGroup = new NioEventLoopGroup
-            (Runtime.getRuntime().availableProcessors()-1);
+    private EventLoopGroup workerGroup;
+    /**
+     * 所有监听socket
+     */
+    private final List<Channel> serverChannels = new CopyOnWriteArrayList<>();
+    /**
+     * 所有设备连接，停机时统一停止读取、flush、关闭
+     */
+    private final ChannelGroup deviceChannels = new DefaultChannelGroup(GlobalEventExecutor.INSTANCE);
+    /**
+     * 已解码未处理完的帧
+     */
+    private final InFlightFrames inFlightFrames = new InFlightFrames();
+    /**
+     * 包头解码器，无状态，所有连接共享一个实例
+     */
+    private final DeviceMessageDecoder deviceMessageDecoder = new DeviceMessageDecoder(inFlightFrames);
     /**
      * Netty服务器配置类
      */
-//    @Resource
+    @Resource
     private NettyServerConfig nettyConfig;
+    /**
+     * 业务处理入口，所有连接共享
+     */
+    @Resource
+    private NettyServerHandler nettyServerHandler;
+    /**
+     * 心跳处理，所有连接共享一个时间轮
+     */
+    @Resource
+    private HeartbeatHandler heartbeatHandler;
+    /**
+     * 设备serial路由登记，所有连接共享
+     */
+    @Resource
+    private DeviceRouteHandler deviceRouteHandler;
+    /**
+     * flush次数及每次flush字节数统计
+     */
+    @Resource
+    private FlushMetrics flushMetrics;
+    /**
+     * 监听socket接入控制，所有监听socket共享
+     */
+    @Resource
+    private AcceptLimiter acceptLimiter;
+    /**
+     * 按连接、devType限流
+     */
+    @Resource
+    private FrameRateLimiter frameRateLimiter;
+
+    private volatile boolean running;
+
+    /**
+     * 开启服务，端口异步绑定，不阻塞容器启动；至少一个监听socket绑定成功后才视为运行中
+     */
+    @Override
+    public void start() {
+        process();
+    }
+
     /**
      * 关闭服务器方法
+     * 1. 关闭监听socket，不再接收新连接
+     * 2. 停止读取已有连接，等待在途帧处理完毕，超过drainTimeout不再等待
+     * 3. flush待发送数据后关闭连接
+     * 4. 释放线程组
      */
-//    @PreDestroy
-    public void close() {
+    @Override
+    public void stop() {
         log.info("#########【关闭服务器】#########");
-        bossGroup.shutdownGracefully();
-        workerGroup.shutdownGracefully();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(nettyConfig.getDrainTimeoutMillis());
+
+        for (Channel channel : serverChannels) {
+            channel.close().awaitUninterruptibly(remainingMillis(deadline));
+        }
+        serverChannels.clear();
+
+        for (Channel channel : deviceChannels) {
+            AutoReadControl.suspend(channel, AutoReadControl.SHUTDOWN);
+        }
+
+        try {
+            if (!inFlightFrames.awaitDrain(remainingMillis(deadline), TimeUnit.MILLISECONDS)) {
+                log.warn("等待在途帧超时，剩余 {} 帧未处理", inFlightFrames.count());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        deviceChannels.flush();
+        deviceChannels.close().awaitUninterruptibly(remainingMillis(deadline));
+
+        bossGroup.shutdownGracefully(0, remainingMillis(deadline), TimeUnit.MILLISECONDS);
+        workerGroup.shutdownGracefully(0, remainingMillis(deadline), TimeUnit.MILLISECONDS);
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
     }
+
     /**
-     * 开启及服务线程
+     * 与内嵌Tomcat(WebServerStartStopLifecycle)同一阶段启动和停止
      */
-//    @PostConstruct
-    public void start() {
-        // -- 使用单独的一个线程启动Netty，不阻塞Main线程
-        new Thread(new Runnable() {
-            @Override
-            public void run() {
-                process();
-            }
-        }).start();
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE - 1;
+    }
+
+    private static long remainingMillis(long deadline) {
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
     }
 
     /**
@@ -75,11 +178,20 @@ public class NettyServerBootStrap {
     public void process(){
         // 从配置文件中(application.yml)获取服务端监听端口号
         int port = nettyConfig.getPort();
+
+        /**
+         * 根据配置选择传输层，Linux上优先使用原生epoll，否则降级为NIO
+         */
+        NettyTransport transport = NettyTransport.resolve(nettyConfig.getTransport());
+        int acceptors = transport.supportsReusePort() ? nettyConfig.getAcceptors() : 1;
+        bossGroup = transport.newEventLoopGroup(acceptors);
+        workerGroup = transport.newEventLoopGroup(nettyConfig.getWorkerThreads());
+
         bootstrap.group( bossGroup, workerGroup );
         /**
-         * 设置channel类型为NIO类型 , [异步的服务器端 TCP Socket 连接]
+         * 设置channel类型 , [异步的服务器端 TCP Socket 连接]
          */
-        bootstrap.channel( NioServerSocketChannel.class );
+        bootstrap.channel( transport.serverChannelClass() );
 
         /************
          *  option 与 childOption 设置的区别
@@ -89,25 +201,38 @@ public class NettyServerBootStrap {
 
         /**
          *BACKLOG用于构造服务端套接字ServerSocket对象，标识当服务器请求处理线程全满时，
-         *用于临时存放已完成三次握手的请求的队列的最大长度 ，当前设置为64
+         *用于临时存放已完成三次握手的请求的队列的最大长度
          */
-        bootstrap.option(ChannelOption.SO_BACKLOG , 64);
+        bootstrap.option(ChannelOption.SO_BACKLOG , nettyConfig.getBacklog());
 
 
-        //允许在同一端口上启动同一服务器的多个实例
+        //允许重启时绑定仍处于TIME_WAIT的端口，并不能让多个实例共享端口
         bootstrap.option( ChannelOption.SO_REUSEADDR, true );
 
+        //多个监听socket绑定同一端口，由内核把accept分散到各个boss线程
+        if (acceptors > 1) {
+            bootstrap.option(EpollChannelOption.SO_REUSEPORT, true);
+        }
+
         //使用ByteBuf 对象池 ，重用缓存池
         bootstrap.option(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT);
 
+        //接入速率超限时暂停accept，连接总数超限时拒绝
+        bootstrap.handler(acceptLimiter);
+
         try {
             //设置事件处理
             bootstrap.childHandler(new ChannelInitializer<SocketChannel>() {
                 @Override
                 protected void initChannel(SocketChannel socketChannel) throws Exception {
+                    deviceChannels.add(socketChannel);
+
                     ChannelPipeline p = socketChannel.pipeline();
-                    //使用心跳机制，如果60S内没有回复 就触发一次userEventTrigger()方法  ,可以解决内存泄漏的问题
-                    p.addLast( new IdleStateHandler( NettyServerHandler.readerIdleTime, 0, 0, TimeUnit.SECONDS ) );
+
+                    //最靠近socket，合并同一轮读取/任务中的多次flush，并按发送缓冲水位暂停读取
+                    p.addLast( new FlushConsolidationHandler(nettyConfig.getFlushMaxPending(),
+                            nettyConfig.isFlushConsolidateWhenIdle(), flushMetrics) );
+
                     /**
                      * 自定义协议包头示意图
                      +-----+-------+-----+-----+-----+-----+
@@ -116,24 +241,29 @@ public class NettyServerBootStrap {
                      | 2      |    2  |        2   |      2  |    4   |     4  |
                      +-----+-----+-----+-----+-----+-----+
                      * 解析包头跟包体 ，带有长度包头的数据包
-                     *  maxFrameLength : 消息的最大长度,LengthFieldBasedFrameDecoder接收的最大长度
-                     *  lengthFieldOffset ：长度的偏移量
-                     *  lengthFieldLength : 长度占用字节
-                     *  lengthAdjustment ： 忽略多长字段 （在总长度包括包头的情况下需要输入，如果只是包体的长度 不需输入）
-                     *  initialBytesToStrip : 忽略多少字节（通常是忽略包头长度）
+                     *  maxFrameLength : 消息的最大长度，超过的帧读到包头时就拒绝并丢弃，不会缓存
                      */
-                    final int maxFrameLength = Integer.MAX_VALUE;
-                    final int lengthFieldOffset = 12;
-                    final int lengthFieldLength = 4;
-                    final int lengthAdjustment = 0;
-                    final int initialBytesToStrip = 0;
+                    p.addLast( new DeviceFrameDecoder(nettyConfig.getMaxFrameLength()) );
+
+                    //解析16字节包头，包体为零拷贝slice
+                    p.addLast( deviceMessageDecoder );
 
-                    //使用Netty 基于自定义包头去编解码
-                    p.addLast( new LengthFieldBasedFrameDecoder(ByteOrder.BIG_ENDIAN ,maxFrameLength,
-                            lengthFieldOffset,lengthFieldLength,lengthAdjustment ,initialBytesToStrip,true));
+                    //按连接和devType限流，超限时暂停读取，已读到的帧不丢弃
+                    if (nettyConfig.isRateLimitEnabled()) {
+                        p.addLast( new RateLimitHandler(frameRateLimiter) );
+                    }
 
-                    //由于内部使用了连接池，避免多次被实例化
-//                    p.addLast( NettyServerHandler.INSTANCE );
+                    //出站消息编码为包头+包体的composite buffer
+                    p.addLast( DeviceMessageEncoder.INSTANCE );
+
+                    //首个业务帧登记serial -> channel路由，断开时移除
+                    p.addLast( deviceRouteHandler );
+
+                    //使用心跳机制，连接空闲时发送PING，多次无响应则驱逐，可以解决内存泄漏的问题
+                    p.addLast( heartbeatHandler );
+
+                    //无状态共享实例，业务处理转移到offload线程池
+                    p.addLast( nettyServerHandler );
 
                 }
             });
@@ -152,9 +282,23 @@ public class NettyServerBootStrap {
             bootstrap.childOption(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT);
 
             /**
-             * 设置接收缓冲区的大小
+             * 发送缓冲水位，对端不读取时待发送数据超过高水位channel变为不可写
+             */
+            bootstrap.childOption(ChannelOption.WRITE_BUFFER_HIGH_WATER_MARK, nettyConfig.getWriteBufferHighWaterMark());
+            bootstrap.childOption(ChannelOption.WRITE_BUFFER_LOW_WATER_MARK, nettyConfig.getWriteBufferLowWaterMark());
+
+            /**
+             * 根据实际读取的字节数动态调整每次读取分配的ByteBuf大小，小包设备不会占用大缓冲区
+             */
+            bootstrap.childOption(ChannelOption.RCVBUF_ALLOCATOR, new AdaptiveRecvByteBufAllocator(
+                    nettyConfig.getRecvBufMinimum(), nettyConfig.getRecvBufInitial(), nettyConfig.getRecvBufMaximum()));
+
+            /**
+             * 设置接收缓冲区的大小，未配置时使用内核默认值
              */
-            bootstrap.childOption(ChannelOption.SO_RCVBUF , 1024*1024*1024 );
+            if (nettyConfig.getSoRcvbuf() > 0) {
+                bootstrap.childOption(ChannelOption.SO_RCVBUF, nettyConfig.getSoRcvbuf());
+            }
 
             /**
              * 一段时间客户端没有信息了，通过ack确认客户端是否在线
@@ -162,13 +306,30 @@ public class NettyServerBootStrap {
             bootstrap.childOption(ChannelOption.SO_KEEPALIVE, true);
 
             /**
-             * 设置发送缓冲区的大小
+             * 设置发送缓冲区的大小，未配置时使用内核默认值
              */
-            bootstrap.childOption(ChannelOption.SO_SNDBUF , 1024*1024*1024 );
+            if (nettyConfig.getSoSndbuf() > 0) {
+                bootstrap.childOption(ChannelOption.SO_SNDBUF, nettyConfig.getSoSndbuf());
+            }
 
-            ChannelFuture f = bootstrap.bind(port).sync();
-            log.info("netty服务器在【{}】端口启动监听", port);
-            f.channel().closeFuture().sync();
+            //每次bind创建一个监听socket，依次注册到boss线程组中的不同线程
+            AtomicInteger pendingBinds = new AtomicInteger(acceptors);
+            for (int i = 0; i < acceptors; i++) {
+                bootstrap.bind(port).addListener((ChannelFutureListener) f -> {
+                    if (f.isSuccess()) {
+                        serverChannels.add(f.channel());
+                        running = true;
+                        log.info("netty服务器在【{}】端口启动监听, transport={}", port, transport);
+                    } else {
+                        log.error("netty服务器绑定【{}】端口失败", port, f.cause());
+                    }
+                    // 全部绑定失败时释放线程组，容器不会对未运行的组件调用stop
+                    if (pendingBinds.decrementAndGet() == 0 && serverChannels.isEmpty()) {
+                        bossGroup.shutdownGracefully();
+                        workerGroup.shutdownGracefully();
+                    }
+                });
+            }
         } catch (Exception e) {
             log.warn("【出现异常】 释放资源 {} " , e.getLocalizedMessage());  ;
             bossGroup.shutdownGracefully();
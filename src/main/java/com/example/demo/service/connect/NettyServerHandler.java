@@ -1,21 +1,41 @@
 package com.example.demo.service.connect;
 
+import com.example.demo.service.connect.codec.DeviceMessage;
+import com.example.demo.service.connect.dispatch.OrderedDispatcher;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerAdapter;
+import io.netty.channel.ChannelHandlerContext;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.Resource;
+
 /**
+ * 设备消息入口，无状态，所有连接共享一个实例
+ * 解码后的消息交给OrderedDispatcher在业务线程池中处理，不阻塞I/O线程
  * @author Marion
  * @date 2021/5/2
  */
-public class NettyServerHandler {
-    public static long readerIdleTime;
+@Slf4j
+@Component
+@ChannelHandler.Sharable
+public class NettyServerHandler extends ChannelHandlerAdapter {
 
-    private static Object INSTANCE = new Object();
+    @Resource
+    private OrderedDispatcher dispatcher;
 
-    public static long getReaderIdleTime() {
-        return readerIdleTime;
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        if (msg instanceof DeviceMessage) {
+            dispatcher.dispatch(ctx.channel(), (DeviceMessage) msg);
+        } else {
+            ctx.fireChannelRead(msg);
+        }
     }
 
-    public static void setReaderIdleTime(long readerIdleTime) {
-        NettyServerHandler.readerIdleTime = readerIdleTime;
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
+        log.warn("【连接异常】关闭连接 remote={}", ctx.channel().remoteAddress(), cause);
+        ctx.close();
     }
 }
@@ -1,40 +1,61 @@
 package com.example.demo.service.connect;
 
 import com.example.demo.config.NettyServerConfig;
-import io.netty.buffer.ByteBuf;
-import io.netty.buffer.Unpooled;
-import io.netty.channel.ChannelFuture;
-import io.netty.channel.ChannelFutureListener;
+import com.example.demo.service.connect.websocket.WebSocketBroadcaster;
+import com.example.demo.service.connect.websocket.WebSocketClusterBus;
+import com.example.demo.service.connect.websocket.WebSocketHandshakeHandler;
+import com.example.demo.service.connect.websocket.WebSocketTopicRegistry;
+import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
-import io.netty.handler.codec.http.DefaultFullHttpResponse;
-import io.netty.handler.codec.http.FullHttpRequest;
-import io.netty.handler.codec.http.HttpResponseStatus;
-import io.netty.handler.codec.http.HttpVersion;
 import io.netty.handler.codec.http.websocketx.*;
-import io.netty.util.CharsetUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
 
 import java.util.Date;
 
 /**
  * 基于Netty构建的WebSocket进入/离开/响应数据
+ * 握手由WebSocketHandshakeHandler完成，handshaker保存在channel属性中，本处理器无状态，所有连接共享
+ * 分片帧在WebSocketFrameAggregator中聚合后才到达本处理器
  * @author Marion
  * @date 2021/5/2
  */
-public class WebSocketBootstrap extends SimpleChannelInboundHandler<Object> {
+@Slf4j
+@Component
+@ChannelHandler.Sharable
+public class WebSocketBootstrap extends SimpleChannelInboundHandler<WebSocketFrame> {
 
-    private WebSocketServerHandshaker handshaker;
+    /**
+     * 广播器，编码一次后按EventLoop分批发送
+     */
+    private final WebSocketBroadcaster broadcaster;
 
-    private static final String WEB_SOCKET_URL = "ws://localhost:8888/websocket";
+    /**
+     * 房间/主题订阅索引
+     */
+    private final WebSocketTopicRegistry topicRegistry;
 
-    private static final int HTTP_SUCCESS = 200;
+    /**
+     * 文本广播经集群总线同时发给其他节点
+     */
+    private final WebSocketClusterBus clusterBus;
 
     /**
-     * 客户端与服务器建立连接时候调用
+     * 控制帧前缀：订阅、取消订阅、向主题发布
+     * /sub {topic}
+     * /unsub {topic}
+     * /pub {topic} {message}
      */
-    @Override
-    public void channelActive(ChannelHandlerContext ctx) throws Exception {
-        NettyServerConfig.group.add(ctx.channel());
+    private static final String CMD_SUB = "/sub ";
+    private static final String CMD_UNSUB = "/unsub ";
+    private static final String CMD_PUB = "/pub ";
+
+    public WebSocketBootstrap(WebSocketBroadcaster broadcaster, WebSocketTopicRegistry topicRegistry,
+                              WebSocketClusterBus clusterBus) {
+        this.broadcaster = broadcaster;
+        this.topicRegistry = topicRegistry;
+        this.clusterBus = clusterBus;
     }
 
     /**
@@ -44,6 +65,7 @@ public class WebSocketBootstrap extends SimpleChannelInboundHandler<Object> {
     public void channelInactive(ChannelHandlerContext ctx) throws Exception {
         super.channelInactive(ctx);
         NettyServerConfig.group.remove(ctx.channel());
+        topicRegistry.unsubscribeAll(ctx.channel());
     }
 
     /**
@@ -59,112 +81,91 @@ public class WebSocketBootstrap extends SimpleChannelInboundHandler<Object> {
      */
     @Override
     public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
-        cause.printStackTrace();
+        log.warn("websocket连接异常，关闭连接 channel={}", ctx.channel(), cause);
         ctx.close();
     }
 
-    /**
-     * 服务端处理客户端websocket请求核心方法
-     */
-    @Override
-    protected void messageReceived(ChannelHandlerContext ctx, Object msg) throws Exception {
-        /**
-         * 1. 判断是否HTTP请求还是WebSocket请求
-         */
-        if (msg instanceof FullHttpRequest) {
-            handleHttpRequest(ctx, (FullHttpRequest) msg);
-        } else if (msg instanceof WebSocketFrame) {
-            handleWebSocket(ctx, (WebSocketFrame) msg);
-        }
-    }
-
-    /**
-     * 处理客户端向服务端发起http握手请求的业务
-     */
-    public void handleHttpRequest(ChannelHandlerContext ctx, FullHttpRequest request) {
-        /**
-         * 1. 如果不是WebSocket握手请求，则直接返回
-         *      1-1. 响应是否成功
-         *      2-1. Upgrade是否websocket
-         * 2. 从工厂中创建实例，handshake处理chanel中的request的请求
-         */
-
-        //1. 如果不是WebSocket握手请求，则直接返回
-        if (!request.decoderResult().isSuccess()
-                || !"websocket".contentEquals(request.headers().get("Upgrade"))) {
-            sendHttpRequest(ctx, request, new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.BAD_REQUEST));
-            return;
-        }
-
-        //2. 从工厂中创建实例，handshake处理chanel中的request的请求
-        WebSocketServerHandshakerFactory wsFactory = new WebSocketServerHandshakerFactory(WEB_SOCKET_URL, null, false);
-        handshaker = wsFactory.newHandshaker(request);
-        if (handshaker == null) {
-            WebSocketServerHandshakerFactory.sendUnsupportedVersionResponse(ctx.channel());
-        } else {
-            handshaker.handshake(ctx.channel(), request);
-        }
-    }
-
     /**
      * 处理WebSocket请求
      */
-    private void handleWebSocket(ChannelHandlerContext ctx, WebSocketFrame frame) {
+    @Override
+    protected void messageReceived(ChannelHandlerContext ctx, WebSocketFrame frame) throws Exception {
         /**
-         * 1. 验证消息类型close/ping，目前只支持Text处理
-         * 2. 处理接受到数据
+         * 1. 验证消息类型close/ping/binary
+         * 2. 处理接受到数据，控制帧处理订阅/发布
          * 3. 广播给所有channel
          */
 
-        // 1. 验证消息类型close/ping，目前只支持Text处理
+        // 1. 验证消息类型close/ping/binary
         if (frame instanceof CloseWebSocketFrame) {
+            WebSocketServerHandshaker handshaker = ctx.channel().attr(WebSocketHandshakeHandler.HANDSHAKER).get();
             handshaker.close(ctx.channel(), ((CloseWebSocketFrame) frame).retain());
+            return;
         }
 
         if (frame instanceof PingWebSocketFrame) {
-            System.out.println("暂不支持二进制消息");
-            ctx.channel().write(new PingWebSocketFrame(frame.content().retain()));
+            ctx.channel().write(new PongWebSocketFrame(frame.content().retain()));
+            return;
+        }
+
+        if (frame instanceof BinaryWebSocketFrame) {
+            // 二进制消息原样广播，本地包体零拷贝，开启集群时拷贝一份发给其他节点
+            clusterBus.publishAllBinary(frame.content().retain());
             return;
         }
 
         if (!(frame instanceof TextWebSocketFrame)) {
-            System.out.println("暂不支持二进制消息");
-            throw new RuntimeException("【" + this.getClass().getName() + "】不支持消息");
+            log.warn("忽略不支持的消息类型 {}", frame.getClass().getSimpleName());
+            return;
         }
 
         // 2. 处理接受到数据
         String text = ((TextWebSocketFrame) frame).text();
-        System.out.println("收到文本数据" + text);
+        if (log.isDebugEnabled()) {
+            log.debug("收到文本数据 channel={}, text={}", ctx.channel().id(), text);
+        }
+
+        if (text.startsWith("/") && handleControl(ctx, text)) {
+            return;
+        }
 
-        TextWebSocketFrame tws = new TextWebSocketFrame(new Date().toString()
-                + ctx.channel().id()
-                + " : "
-                + text);
+        String message = new StringBuilder(64 + text.length())
+                .append(new Date())
+                .append(ctx.channel().id())
+                .append(" : ")
+                .append(text)
+                .toString();
 
-        // 3. 广播给所有channel
-        NettyServerConfig.group.writeAndFlush(tws);
+        // 3. 广播给集群内所有channel，本节点消息只编码一次
+        clusterBus.publishAll(message);
     }
 
     /**
-     * 服务端向客户端响应消息
+     * 处理订阅控制帧，不是控制帧时返回false
      */
-    private void sendHttpRequest(ChannelHandlerContext ctx, FullHttpRequest request, DefaultFullHttpResponse response) {
-        /**
-         * 1. 如果响应不是200，则关闭资源
-         * 2. 服务端向客户端发送数据
-         */
-        if (response.status().code() != HTTP_SUCCESS) {
-            ByteBuf byteBuf = Unpooled.copiedBuffer(response.status().toString(), CharsetUtil.UTF_8);
-            response.content().writeBytes(byteBuf);
-            byteBuf.release();
+    private boolean handleControl(ChannelHandlerContext ctx, String text) {
+        if (text.startsWith(CMD_SUB)) {
+            topicRegistry.subscribe(ctx.channel(), text.substring(CMD_SUB.length()).trim());
+            return true;
         }
 
-        //2. 服务端向客户端发送数据
-        ChannelFuture channelFuture = ctx.channel().writeAndFlush(response);
+        if (text.startsWith(CMD_UNSUB)) {
+            topicRegistry.unsubscribe(ctx.channel(), text.substring(CMD_UNSUB.length()).trim());
+            return true;
+        }
 
-        if (response.status().code() != HTTP_SUCCESS) {
-            channelFuture.addListener(ChannelFutureListener.CLOSE);
+        if (text.startsWith(CMD_PUB)) {
+            int split = text.indexOf(' ', CMD_PUB.length());
+            if (split < 0) {
+                return true;
+            }
+            String topic = text.substring(CMD_PUB.length(), split);
+            // 只发送给集群内该主题的订阅者
+            clusterBus.publish(topic, text.substring(split + 1));
+            return true;
         }
+
+        return false;
     }
 
 }
@@ -0,0 +1,116 @@
+package com.example.demo.service.connect;
+
+import com.example.demo.config.NettyServerConfig;
+import com.example.demo.service.connect.transport.NettyTransport;
+import com.example.demo.service.connect.websocket.WebSocketHandshakeHandler;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.*;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.HttpServerCodec;
+import io.netty.handler.codec.http.websocketx.WebSocketFrameAggregator;
+import io.netty.handler.codec.http.websocketx.extensions.compression.WebSocketServerCompressionHandler;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * WebSocket 服务器
+ * pipeline: HttpServerCodec -> HttpObjectAggregator -> [WebSocketServerCompressionHandler]
+ *           -> WebSocketHandshakeHandler -> WebSocketFrameAggregator -> WebSocketBootstrap
+ * 1. 握手完成后HTTP相关的处理器全部移除，只保留WebSocket编解码器和共享的帧处理器
+ * 2. 开启压缩时，客户端在握手中请求permessage-deflate才会启用，逐个连接协商
+ * 3. 分片(continuation)帧聚合为完整消息，超过最大长度时关闭连接
+ * @author Marion
+ * @date 2026/10/18
+ */
+@Slf4j
+@Component
+public class WebSocketServerBootStrap implements SmartLifecycle {
+
+    @Resource
+    private NettyServerConfig nettyConfig;
+
+    @Resource
+    private WebSocketHandshakeHandler handshakeHandler;
+
+    @Resource
+    private WebSocketBootstrap webSocketBootstrap;
+
+    private EventLoopGroup bossGroup;
+    private EventLoopGroup workerGroup;
+    private volatile Channel serverChannel;
+    private volatile boolean running;
+
+    @Override
+    public void start() {
+        NettyTransport transport = NettyTransport.resolve(nettyConfig.getTransport());
+        bossGroup = transport.newEventLoopGroup(1);
+        workerGroup = transport.newEventLoopGroup(nettyConfig.getWorkerThreads());
+
+        ServerBootstrap bootstrap = new ServerBootstrap()
+                .group(bossGroup, workerGroup)
+                .channel(transport.serverChannelClass())
+                .option(ChannelOption.SO_BACKLOG, nettyConfig.getBacklog())
+                .option(ChannelOption.SO_REUSEADDR, true)
+                .childOption(ChannelOption.TCP_NODELAY, true)
+                .childOption(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
+                //超过高水位channel变为不可写，广播时跳过该慢客户端
+                .childOption(ChannelOption.WRITE_BUFFER_HIGH_WATER_MARK, nettyConfig.getWebSocketWriteBufferHighWaterMark())
+                .childOption(ChannelOption.WRITE_BUFFER_LOW_WATER_MARK, nettyConfig.getWebSocketWriteBufferLowWaterMark())
+                .childHandler(new ChannelInitializer<SocketChannel>() {
+                    @Override
+                    protected void initChannel(SocketChannel socketChannel) throws Exception {
+                        ChannelPipeline p = socketChannel.pipeline();
+                        p.addLast(new HttpServerCodec());
+                        p.addLast(new HttpObjectAggregator(nettyConfig.getWebSocketMaxFramePayloadLength()));
+                        if (nettyConfig.isWebSocketCompression()) {
+                            p.addLast(new WebSocketServerCompressionHandler());
+                        }
+                        p.addLast(handshakeHandler);
+                        p.addLast(new WebSocketFrameAggregator(nettyConfig.getWebSocketMaxMessageLength()));
+                        p.addLast(webSocketBootstrap);
+                    }
+                });
+
+        int port = nettyConfig.getWebSocketPort();
+        bootstrap.bind(port).addListener((ChannelFutureListener) f -> {
+            if (f.isSuccess()) {
+                serverChannel = f.channel();
+                log.info("websocket服务器在【{}】端口启动监听", port);
+            } else {
+                log.error("websocket服务器绑定【{}】端口失败", port, f.cause());
+            }
+        });
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        log.info("#########【关闭WebSocket服务器】#########");
+        if (serverChannel != null) {
+            serverChannel.close().awaitUninterruptibly();
+        }
+        NettyServerConfig.group.close().awaitUninterruptibly(nettyConfig.getDrainTimeoutMillis(), TimeUnit.MILLISECONDS);
+        bossGroup.shutdownGracefully(0, 2, TimeUnit.SECONDS);
+        workerGroup.shutdownGracefully(0, 2, TimeUnit.SECONDS);
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * 与内嵌Tomcat同一阶段启动和停止
+     */
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE - 1;
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.demo.service.connect.codec;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.CorruptedFrameException;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+import io.netty.handler.codec.TooLongFrameException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.ByteOrder;
+
+/**
+ * 基于包头length字段的拆包器
+ * 1. 超过maxFrameLength的帧在读到包头时立即拒绝(failFast)，后续字节边读边丢弃，不会缓存
+ * 2. 超长帧只记录日志，连接继续可用；长度字段非法时流已错位，直接关闭连接
+ * @author Marion
+ * @date 2026/10/18
+ */
+@Slf4j
+public class DeviceFrameDecoder extends LengthFieldBasedFrameDecoder {
+
+    public DeviceFrameDecoder(int maxFrameLength) {
+        super(ByteOrder.BIG_ENDIAN, maxFrameLength,
+                DeviceMessage.LENGTH_FIELD_OFFSET, DeviceMessage.LENGTH_FIELD_LENGTH, 0, 0, true);
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
+        if (cause instanceof TooLongFrameException) {
+            log.warn("丢弃超长帧 remote={}, {}", ctx.channel().remoteAddress(), cause.getMessage());
+            return;
+        }
+        if (cause instanceof CorruptedFrameException) {
+            log.warn("非法帧，关闭连接 remote={}, {}", ctx.channel().remoteAddress(), cause.getMessage());
+            ctx.close();
+            return;
+        }
+        super.exceptionCaught(ctx, cause);
+    }
+}
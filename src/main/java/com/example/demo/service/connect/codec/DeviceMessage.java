@@ -0,0 +1,175 @@
+package com.example.demo.service.connect.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.util.AbstractReferenceCounted;
+import io.netty.util.Recycler;
+
+/**
+ * 自定义协议消息，包头16字节 + 包体
+ * +------+------+---------+------+--------+--------+
+ * | mark | ver  | devType | mode | serial | length |
+ * +------+------+---------+------+--------+--------+
+ * |  2   |  2   |    2    |  2   |   4    |   4    |
+ * +------+------+---------+------+--------+--------+
+ *
+ * 1. 对象通过Recycler回收复用，避免每帧分配
+ * 2. body是帧ByteBuf的retain slice，不发生拷贝；引用计数归零时释放body并回收对象
+ * @author Marion
+ * @date 2026/10/18
+ */
+public final class DeviceMessage extends AbstractReferenceCounted {
+
+    /**
+     * 包头长度
+     */
+    public static final int HEADER_LENGTH = 16;
+
+    /**
+     * length字段偏移量及长度
+     */
+    public static final int LENGTH_FIELD_OFFSET = 12;
+    public static final int LENGTH_FIELD_LENGTH = 4;
+
+    /**
+     * 心跳包mode，双方收到PING后回复PONG，心跳包不进入业务处理
+     */
+    public static final short MODE_PING = (short) 0xFFFE;
+    public static final short MODE_PONG = (short) 0xFFFF;
+
+    private static final Recycler<DeviceMessage> RECYCLER = new Recycler<DeviceMessage>() {
+        @Override
+        protected DeviceMessage newObject(Handle<DeviceMessage> handle) {
+            return new DeviceMessage(handle);
+        }
+    };
+
+    private final Recycler.Handle<DeviceMessage> handle;
+
+    private short mark;
+    private short ver;
+    private short devType;
+    private short mode;
+    /**
+     * 设备标识，同一个设备的所有帧相同，服务端据此路由下行消息；不作为请求序号使用
+     */
+    private int serial;
+    private ByteBuf body;
+    private InFlightFrames inFlight;
+
+    private DeviceMessage(Recycler.Handle<DeviceMessage> handle) {
+        this.handle = handle;
+    }
+
+    /**
+     * 从对象池获取消息，body的所有权转移给消息
+     */
+    public static DeviceMessage newInstance(short mark, short ver, short devType, short mode, int serial, ByteBuf body) {
+        DeviceMessage msg = RECYCLER.get();
+        msg.setRefCnt(1);
+        msg.mark = mark;
+        msg.ver = ver;
+        msg.devType = devType;
+        msg.mode = mode;
+        msg.serial = serial;
+        msg.body = body == null ? Unpooled.EMPTY_BUFFER : body;
+        return msg;
+    }
+
+    /**
+     * 无包体的心跳包
+     */
+    public static DeviceMessage heartbeat(short mode) {
+        return newInstance((short) 0, (short) 0, (short) 0, mode, 0, null);
+    }
+
+    /**
+     * 纳入在途帧统计，释放时自动减一
+     */
+    DeviceMessage track(InFlightFrames inFlight) {
+        inFlight.acquire();
+        this.inFlight = inFlight;
+        return this;
+    }
+
+    public short mark() {
+        return mark;
+    }
+
+    public short ver() {
+        return ver;
+    }
+
+    public short devType() {
+        return devType;
+    }
+
+    public short mode() {
+        return mode;
+    }
+
+    public int serial() {
+        return serial;
+    }
+
+    /**
+     * 包体长度，即包头中的length字段
+     */
+    public int length() {
+        return body.readableBytes();
+    }
+
+    public ByteBuf body() {
+        return body;
+    }
+
+    @Override
+    public DeviceMessage retain() {
+        super.retain();
+        return this;
+    }
+
+    @Override
+    public DeviceMessage retain(int increment) {
+        super.retain(increment);
+        return this;
+    }
+
+    @Override
+    public DeviceMessage touch() {
+        return touch(null);
+    }
+
+    @Override
+    public DeviceMessage touch(Object hint) {
+        body.touch(hint);
+        return this;
+    }
+
+    /**
+     * 引用计数归零，释放包体并放回对象池
+     */
+    @Override
+    protected void deallocate() {
+        ByteBuf b = body;
+        InFlightFrames f = inFlight;
+        body = null;
+        inFlight = null;
+        b.release();
+        if (f != null) {
+            f.release();
+        }
+        handle.recycle(this);
+    }
+
+    @Override
+    public String toString() {
+        return "DeviceMessage{mark=" + mark
+                + ", ver=" + ver
+                + ", devType=" + devType
+                + ", mode=" + mode
+                + ", serial=" + serial
+                + ", length=" + (body == null ? 0 : body.readableBytes())
+                + '}';
+    }
+}
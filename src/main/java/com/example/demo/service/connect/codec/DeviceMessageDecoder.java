@@ -0,0 +1,51 @@
+package com.example.demo.service.connect.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.CorruptedFrameException;
+import io.netty.handler.codec.MessageToMessageDecoder;
+
+import java.util.List;
+
+/**
+ * 自定义包头解码器，放在LengthFieldBasedFrameDecoder之后
+ * 1. 直接按偏移量从池化的ByteBuf中读取包头字段，不移动readerIndex
+ * 2. 包体使用retain slice，与帧共享内存，不拷贝
+ * 3. 所有channel共享一个实例，解码出的帧计入在途统计
+ * @author Marion
+ * @date 2026/10/18
+ */
+@ChannelHandler.Sharable
+public class DeviceMessageDecoder extends MessageToMessageDecoder<ByteBuf> {
+
+    private final InFlightFrames inFlight;
+
+    public DeviceMessageDecoder(InFlightFrames inFlight) {
+        this.inFlight = inFlight;
+    }
+
+    @Override
+    protected void decode(ChannelHandlerContext ctx, ByteBuf frame, List<Object> out) throws Exception {
+        /**
+         * 1. 校验帧长度是否与包头length一致
+         * 2. 读取包头字段
+         * 3. 包体slice并retain，父类decode完成后会release帧
+         */
+        int idx = frame.readerIndex();
+        int length = frame.getInt(idx + DeviceMessage.LENGTH_FIELD_OFFSET);
+        if (length < 0 || frame.readableBytes() != DeviceMessage.HEADER_LENGTH + length) {
+            throw new CorruptedFrameException("frame length mismatch: header=" + length
+                    + ", readable=" + frame.readableBytes());
+        }
+
+        ByteBuf body = frame.slice(idx + DeviceMessage.HEADER_LENGTH, length).retain();
+        out.add(DeviceMessage.newInstance(
+                frame.getShort(idx),
+                frame.getShort(idx + 2),
+                frame.getShort(idx + 4),
+                frame.getShort(idx + 6),
+                frame.getInt(idx + 8),
+                body).track(inFlight));
+    }
+}
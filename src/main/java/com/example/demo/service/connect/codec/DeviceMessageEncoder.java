@@ -0,0 +1,51 @@
+package com.example.demo.service.connect.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.MessageToMessageEncoder;
+
+import java.util.List;
+
+/**
+ * 自定义包头编码器
+ * 1. 只分配16字节包头，包体通过CompositeByteBuf组合，不拷贝
+ * 2. 无状态，所有channel共享一个实例
+ * @author Marion
+ * @date 2026/10/18
+ */
+@ChannelHandler.Sharable
+public class DeviceMessageEncoder extends MessageToMessageEncoder<DeviceMessage> {
+
+    public static final DeviceMessageEncoder INSTANCE = new DeviceMessageEncoder();
+
+    @Override
+    protected void encode(ChannelHandlerContext ctx, DeviceMessage msg, List<Object> out) throws Exception {
+        /**
+         * 1. 写入包头
+         * 2. 包体retain后加入composite，父类encode完成后会release消息
+         */
+        ByteBuf body = msg.body();
+        int length = body.readableBytes();
+
+        ByteBuf header = ctx.alloc().ioBuffer(DeviceMessage.HEADER_LENGTH);
+        header.writeShort(msg.mark());
+        header.writeShort(msg.ver());
+        header.writeShort(msg.devType());
+        header.writeShort(msg.mode());
+        header.writeInt(msg.serial());
+        header.writeInt(length);
+
+        if (length == 0) {
+            out.add(header);
+            return;
+        }
+
+        CompositeByteBuf frame = ctx.alloc().compositeBuffer(2);
+        frame.addComponent(header);
+        frame.addComponent(body.retain());
+        frame.writerIndex(DeviceMessage.HEADER_LENGTH + length);
+        out.add(frame);
+    }
+}
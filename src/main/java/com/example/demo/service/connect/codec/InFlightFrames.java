@@ -0,0 +1,42 @@
+package com.example.demo.service.connect.codec;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 统计已解码但尚未释放的帧数量
+ * 1. 解码时加一，DeviceMessage引用计数归零时减一
+ * 2. 停机时等待计数归零，保证已读取的帧处理完毕
+ * @author Marion
+ * @date 2026/10/18
+ */
+public final class InFlightFrames {
+
+    private final LongAdder count = new LongAdder();
+
+    void acquire() {
+        count.increment();
+    }
+
+    void release() {
+        count.decrement();
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    /**
+     * 等待所有帧处理完毕，超时返回false
+     */
+    public boolean awaitDrain(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (count.sum() > 0) {
+            if (System.nanoTime() - deadline >= 0) {
+                return false;
+            }
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        return true;
+    }
+}
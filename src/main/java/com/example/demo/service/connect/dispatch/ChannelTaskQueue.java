@@ -0,0 +1,108 @@
+package com.example.demo.service.connect.dispatch;
+
+import com.example.demo.service.connect.AutoReadControl;
+import com.example.demo.service.connect.codec.DeviceMessage;
+import io.netty.channel.Channel;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 单个连接的串行任务队列
+ * 1. 同一时刻最多只有一个任务在线程池中执行，保证连接内消息有序
+ * 2. 积压达到高水位时关闭autoRead，回落到低水位时恢复读取
+ * @author Marion
+ * @date 2026/10/18
+ */
+@Slf4j
+final class ChannelTaskQueue implements Runnable {
+
+    /**
+     * 每次调度最多处理的消息数，避免单个连接长期占用线程
+     */
+    private static final int MAX_BATCH = 64;
+
+    private final Channel channel;
+    private final OrderedDispatcher dispatcher;
+    private final Queue<DeviceMessage> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    ChannelTaskQueue(Channel channel, OrderedDispatcher dispatcher) {
+        this.channel = channel;
+        this.dispatcher = dispatcher;
+    }
+
+    void offer(DeviceMessage msg) {
+        queue.offer(msg);
+        if (pending.incrementAndGet() == dispatcher.highWaterMark()) {
+            AutoReadControl.suspend(channel, AutoReadControl.OFFLOAD);
+        }
+        schedule();
+    }
+
+    private void schedule() {
+        if (!scheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            dispatcher.executor().execute(this);
+        } catch (RejectedExecutionException e) {
+            scheduled.set(false);
+            if (dispatcher.executor().isShutdown()) {
+                /**
+                 * 线程池已关闭，不再重试，释放积压的消息
+                 */
+                drain();
+                return;
+            }
+            /**
+             * 线程池已满，暂停读取并稍后重试
+             */
+            AutoReadControl.suspend(channel, AutoReadControl.OFFLOAD);
+            channel.eventLoop().schedule(this::schedule, 10, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void drain() {
+        DeviceMessage msg;
+        int dropped = 0;
+        while ((msg = queue.poll()) != null) {
+            msg.release();
+            pending.decrementAndGet();
+            dropped++;
+        }
+        if (dropped > 0) {
+            log.warn("线程池已关闭，丢弃 {} 条未处理消息 channel={}", dropped, channel);
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            DeviceMessage msg;
+            for (int i = 0; i < MAX_BATCH && (msg = queue.poll()) != null; i++) {
+                try {
+                    dispatcher.invoke(channel, msg);
+                } catch (Throwable e) {
+                    log.warn("处理设备消息异常 channel={}, msg={}", channel, msg, e);
+                } finally {
+                    msg.release();
+                }
+                if (pending.decrementAndGet() <= dispatcher.lowWaterMark()) {
+                    AutoReadControl.resume(channel, AutoReadControl.OFFLOAD);
+                }
+            }
+        } finally {
+            scheduled.set(false);
+            if (!queue.isEmpty()) {
+                schedule();
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.demo.service.connect.dispatch;
+
+import com.example.demo.service.connect.codec.DeviceMessage;
+import io.netty.channel.Channel;
+
+/**
+ * 设备消息业务处理接口，实现类注册为Spring Bean即可生效
+ * 1. 在offload线程池中执行，可以调用Redis/JPA等阻塞操作
+ * 2. 同一个连接的消息按到达顺序串行处理
+ * 3. 调用结束后消息由分发器释放，需要异步使用时自行retain
+ * @author Marion
+ * @date 2026/10/18
+ */
+public interface DeviceMessageListener {
+
+    void onMessage(Channel channel, DeviceMessage msg) throws Exception;
+}
@@ -0,0 +1,120 @@
+package com.example.demo.service.connect.dispatch;
+
+import com.example.demo.config.NettyServerConfig;
+import com.example.demo.service.connect.codec.DeviceMessage;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.netty.channel.Channel;
+import io.netty.util.AttributeKey;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 把解码后的设备消息从Netty I/O线程转移到业务线程池执行
+ * 1. 有界线程池，JDK支持时可选虚拟线程
+ * 2. 每个连接一个串行队列，保证连接内顺序
+ * 3. 连接积压过多时关闭autoRead，由TCP窗口向设备端施加背压
+ * @author Marion
+ * @date 2026/10/18
+ */
+@Slf4j
+@Component
+public class OrderedDispatcher {
+
+    private static final AttributeKey<ChannelTaskQueue> TASK_QUEUE = AttributeKey.valueOf("deviceTaskQueue");
+
+    private final ExecutorService executor;
+    private final List<DeviceMessageListener> listeners;
+    private final int highWaterMark;
+    private final int lowWaterMark;
+    /**
+     * 业务处理耗时，百分位由management.metrics.distribution.*配置，按滑动窗口统计
+     */
+    private final Timer handleTimer;
+
+    public OrderedDispatcher(NettyServerConfig nettyConfig, ObjectProvider<DeviceMessageListener> listeners,
+                             MeterRegistry meterRegistry) {
+        this.listeners = listeners.orderedStream().collect(Collectors.toList());
+        this.handleTimer = Timer.builder("netty.frame.handle")
+                .description("设备消息业务处理耗时")
+                .register(meterRegistry);
+        this.highWaterMark = nettyConfig.getOffloadChannelHighWaterMark();
+        this.lowWaterMark = nettyConfig.getOffloadChannelLowWaterMark();
+        this.executor = newExecutor(nettyConfig);
+    }
+
+    /**
+     * 在I/O线程中调用，消息所有权转移给分发器
+     */
+    public void dispatch(Channel channel, DeviceMessage msg) {
+        ChannelTaskQueue queue = channel.attr(TASK_QUEUE).get();
+        if (queue == null) {
+            queue = new ChannelTaskQueue(channel, this);
+            channel.attr(TASK_QUEUE).set(queue);
+        }
+        queue.offer(msg);
+    }
+
+    void invoke(Channel channel, DeviceMessage msg) throws Exception {
+        long start = System.nanoTime();
+        try {
+            for (DeviceMessageListener listener : listeners) {
+                listener.onMessage(channel, msg);
+            }
+        } finally {
+            handleTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    ExecutorService executor() {
+        return executor;
+    }
+
+    int highWaterMark() {
+        return highWaterMark;
+    }
+
+    int lowWaterMark() {
+        return lowWaterMark;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 1. 开启虚拟线程且JDK支持时，每个任务一个虚拟线程
+     * 2. 否则使用有界线程池，队列满时拒绝，由ChannelTaskQueue暂停读取后重试
+     */
+    private static ExecutorService newExecutor(NettyServerConfig nettyConfig) {
+        if (nettyConfig.isOffloadVirtualThreads()) {
+            try {
+                ExecutorService virtual = (ExecutorService) Executors.class
+                        .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+                log.info("设备消息使用虚拟线程处理");
+                return virtual;
+            } catch (ReflectiveOperationException e) {
+                log.warn("当前JDK不支持虚拟线程，使用平台线程池");
+            }
+        }
+
+        int threads = nettyConfig.getOffloadThreads();
+        return new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(nettyConfig.getOffloadQueueCapacity()),
+                new CustomizableThreadFactory("netty-offload-"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.demo.service.connect.flush;
+
+import com.example.demo.service.connect.AutoReadControl;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufHolder;
+import io.netty.channel.ChannelHandlerAdapter;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+
+/**
+ * 合并flush，减少write系统调用和小包数量(开启了TCP_NODELAY，每次flush都会立即发出一个包)
+ * 当前Netty版本没有FlushConsolidationHandler，按相同思路实现：
+ * 1. 读取过程中的flush推迟到channelReadComplete，一次读到的多个帧的响应(如PONG)一起发出
+ * 2. 不在读取过程中的flush(offload线程的响应、路由下发)提交到EventLoop，同一轮任务中的多次flush合并为一次
+ * 3. 累计maxPendingFlushes次flush后立即执行，避免长时间不发送
+ * 4. 发送缓冲超过高水位时暂停读取该连接，不再产生新的响应，回落到低水位后恢复
+ * 必须放在pipeline最前面(最靠近socket)，每个连接一个实例，只在EventLoop中访问
+ * @author Marion
+ * @date 2026/10/18
+ */
+public class FlushConsolidationHandler extends ChannelHandlerAdapter {
+
+    private final int maxPendingFlushes;
+    private final boolean consolidateWhenNoReadInProgress;
+    private final FlushMetrics metrics;
+
+    private ChannelHandlerContext ctx;
+    private Runnable flushTask;
+    private boolean readInProgress;
+    private boolean flushScheduled;
+    private int flushPendingCount;
+    private long pendingBytes;
+
+    public FlushConsolidationHandler(int maxPendingFlushes, boolean consolidateWhenNoReadInProgress, FlushMetrics metrics) {
+        if (maxPendingFlushes <= 0) {
+            throw new IllegalArgumentException("maxPendingFlushes: " + maxPendingFlushes + " (expected: > 0)");
+        }
+        this.maxPendingFlushes = maxPendingFlushes;
+        this.consolidateWhenNoReadInProgress = consolidateWhenNoReadInProgress;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void handlerAdded(ChannelHandlerContext ctx) throws Exception {
+        this.ctx = ctx;
+        this.flushTask = () -> {
+            flushScheduled = false;
+            if (!readInProgress) {
+                flushIfNeeded();
+            }
+        };
+    }
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+        if (msg instanceof ByteBuf) {
+            pendingBytes += ((ByteBuf) msg).readableBytes();
+        } else if (msg instanceof ByteBufHolder) {
+            pendingBytes += ((ByteBufHolder) msg).content().readableBytes();
+        }
+        ctx.write(msg, promise);
+    }
+
+    @Override
+    public void flush(ChannelHandlerContext ctx) throws Exception {
+        metrics.requested();
+        if (++flushPendingCount >= maxPendingFlushes) {
+            flushNow();
+            return;
+        }
+        if (readInProgress) {
+            // channelReadComplete时统一flush
+            return;
+        }
+        if (!consolidateWhenNoReadInProgress) {
+            flushNow();
+            return;
+        }
+        if (!flushScheduled) {
+            flushScheduled = true;
+            ctx.channel().eventLoop().execute(flushTask);
+        }
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        readInProgress = true;
+        ctx.fireChannelRead(msg);
+    }
+
+    @Override
+    public void channelReadComplete(ChannelHandlerContext ctx) throws Exception {
+        readInProgress = false;
+        flushIfNeeded();
+        ctx.fireChannelReadComplete();
+    }
+
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+        if (ctx.channel().isWritable()) {
+            AutoReadControl.resume(ctx.channel(), AutoReadControl.WRITABILITY);
+        } else {
+            // 尽快把已经写入的数据发出去
+            flushIfNeeded();
+            AutoReadControl.suspend(ctx.channel(), AutoReadControl.WRITABILITY);
+        }
+        ctx.fireChannelWritabilityChanged();
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
+        readInProgress = false;
+        flushIfNeeded();
+        ctx.fireExceptionCaught(cause);
+    }
+
+    @Override
+    public void disconnect(ChannelHandlerContext ctx, ChannelPromise promise) throws Exception {
+        readInProgress = false;
+        flushIfNeeded();
+        ctx.disconnect(promise);
+    }
+
+    @Override
+    public void close(ChannelHandlerContext ctx, ChannelPromise promise) throws Exception {
+        readInProgress = false;
+        flushIfNeeded();
+        ctx.close(promise);
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+        flushIfNeeded();
+    }
+
+    private void flushIfNeeded() {
+        if (flushPendingCount > 0) {
+            flushNow();
+        }
+    }
+
+    private void flushNow() {
+        flushPendingCount = 0;
+        if (pendingBytes > 0) {
+            metrics.flushed(pendingBytes);
+            pendingBytes = 0;
+        }
+        ctx.flush();
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.demo.service.connect.flush;
+
+import com.example.demo.service.counter.CounterService;
+import com.example.demo.service.counter.NamedCounter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * 设备连接的flush统计，所有连接共享
+ * 1. netty.flush.requested / netty.flushes / netty.flush.bytes 计入CounterService，/stats 中可以看到每秒速率
+ * 2. netty.flush.size 每次实际flush的字节数分布
+ * @author Marion
+ * @date 2026/10/18
+ */
+@Component
+public class FlushMetrics {
+
+    private final NamedCounter requested;
+    private final NamedCounter flushes;
+    private final NamedCounter bytes;
+    private final DistributionSummary bytesPerFlush;
+
+    public FlushMetrics(CounterService counterService, MeterRegistry meterRegistry) {
+        this.requested = counterService.counter("netty.flush.requested");
+        this.flushes = counterService.counter("netty.flushes");
+        this.bytes = counterService.counter("netty.flush.bytes");
+        this.bytesPerFlush = DistributionSummary.builder("netty.flush.size")
+                .description("每次flush写出的字节数")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 上游调用了一次flush
+     */
+    void requested() {
+        requested.increment();
+    }
+
+    /**
+     * 实际向socket执行了一次flush
+     */
+    void flushed(long flushedBytes) {
+        flushes.increment();
+        bytes.add(flushedBytes);
+        bytesPerFlush.record(flushedBytes);
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.demo.service.connect.heartbeat;
+
+import com.example.demo.service.connect.codec.DeviceMessage;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerAdapter;
+import io.netty.channel.ChannelHandlerContext;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+
+/**
+ * 心跳处理，放在DeviceMessageDecoder之后，所有连接共享一个实例
+ * 1. 任意帧都刷新连接活跃时间
+ * 2. 收到PING回复PONG，PONG带回设备serial(设备标识，不是请求序号)；PING/PONG不再向后传递
+ * @author Marion
+ * @date 2026/10/18
+ */
+@Component
+@ChannelHandler.Sharable
+public class HeartbeatHandler extends ChannelHandlerAdapter {
+
+    @Resource
+    private HeartbeatManager heartbeatManager;
+
+    @Override
+    public void channelActive(ChannelHandlerContext ctx) throws Exception {
+        heartbeatManager.register(ctx.channel());
+        ctx.fireChannelActive();
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        heartbeatManager.unregister(ctx.channel());
+        ctx.fireChannelInactive();
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        if (!(msg instanceof DeviceMessage)) {
+            ctx.fireChannelRead(msg);
+            return;
+        }
+
+        heartbeatManager.touch(ctx.channel());
+
+        DeviceMessage message = (DeviceMessage) msg;
+        if (message.mode() == DeviceMessage.MODE_PING) {
+            int serial = message.serial();
+            message.release();
+            ctx.writeAndFlush(DeviceMessage.newInstance((short) 0, (short) 0, (short) 0, DeviceMessage.MODE_PONG, serial, null));
+        } else if (message.mode() == DeviceMessage.MODE_PONG) {
+            message.release();
+        } else {
+            ctx.fireChannelRead(msg);
+        }
+    }
+}
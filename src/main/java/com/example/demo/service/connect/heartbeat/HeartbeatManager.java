@@ -0,0 +1,167 @@
+package com.example.demo.service.connect.heartbeat;
+
+import com.example.demo.config.NettyServerConfig;
+import com.example.demo.service.connect.codec.DeviceMessage;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.netty.channel.Channel;
+import io.netty.util.AttributeKey;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import io.netty.util.TimerTask;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 连接心跳管理
+ * 1. 所有连接共享一个HashedWheelTimer，每个连接只有一个时间轮槽位，不占用I/O线程的定时任务队列
+ * 2. 读到帧时只更新最后活跃时间，到期检查时才决定是重新计时、发送PING还是驱逐
+ * 3. 连续多次PING无响应的连接放入驱逐队列，由定时任务按批关闭
+ * @author Marion
+ * @date 2026/10/18
+ */
+@Slf4j
+@Component
+public class HeartbeatManager implements MeterBinder {
+
+    private static final AttributeKey<ConnectionState> STATE = AttributeKey.valueOf("heartbeatState");
+
+    private final HashedWheelTimer timer;
+    private final long readerIdleNanos;
+    private final int maxMissedPings;
+    private final int evictBatchSize;
+
+    private final Queue<Channel> evictQueue = new ConcurrentLinkedQueue<>();
+    private final LongAdder live = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+    private volatile boolean stopped;
+
+    public HeartbeatManager(NettyServerConfig nettyConfig) {
+        this.readerIdleNanos = TimeUnit.SECONDS.toNanos(nettyConfig.getHeartbeatReaderIdleSeconds());
+        this.maxMissedPings = nettyConfig.getHeartbeatMaxMissedPings();
+        this.evictBatchSize = nettyConfig.getHeartbeatEvictBatchSize();
+        this.timer = new HashedWheelTimer(new CustomizableThreadFactory("netty-heartbeat-"),
+                nettyConfig.getHeartbeatTickMillis(), TimeUnit.MILLISECONDS, 512);
+        this.timer.newTimeout(this::evictBatch, 1, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 连接建立时开始计时
+     */
+    void register(Channel channel) {
+        ConnectionState state = new ConnectionState(channel);
+        channel.attr(STATE).set(state);
+        live.increment();
+        state.timeout = timer.newTimeout(state, readerIdleNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 连接断开时取消计时
+     */
+    void unregister(Channel channel) {
+        ConnectionState state = channel.attr(STATE).getAndSet(null);
+        if (state != null) {
+            live.decrement();
+            state.timeout.cancel();
+        }
+    }
+
+    /**
+     * 收到任意帧时刷新最后活跃时间
+     */
+    void touch(Channel channel) {
+        ConnectionState state = channel.attr(STATE).get();
+        if (state != null) {
+            state.lastSeen = System.nanoTime();
+        }
+    }
+
+    public long liveConnections() {
+        return live.sum();
+    }
+
+    public long evictedConnections() {
+        return evicted.sum();
+    }
+
+    /**
+     * 按批关闭驱逐队列中的连接，每秒执行一次
+     */
+    private void evictBatch(Timeout timeout) {
+        Channel channel;
+        for (int i = 0; i < evictBatchSize && (channel = evictQueue.poll()) != null; i++) {
+            channel.close();
+            evicted.increment();
+        }
+        if (!evictQueue.isEmpty()) {
+            log.info("心跳超时待驱逐连接 {} 个", evictQueue.size());
+        }
+        if (!stopped) {
+            timer.newTimeout(this::evictBatch, 1, TimeUnit.SECONDS);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("netty.connections.live", live, LongAdder::sum)
+                .description("当前设备连接数")
+                .register(registry);
+        FunctionCounter.builder("netty.connections.evicted", evicted, LongAdder::sum)
+                .description("心跳超时被驱逐的连接数")
+                .register(registry);
+    }
+
+    @PreDestroy
+    public void stop() {
+        stopped = true;
+        timer.stop();
+    }
+
+    /**
+     * 单个连接的心跳状态
+     * lastSeen由I/O线程写，其余字段只在时间轮线程中访问
+     */
+    private final class ConnectionState implements TimerTask {
+
+        private final Channel channel;
+        private volatile long lastSeen = System.nanoTime();
+        private volatile Timeout timeout;
+        private int missedPings;
+
+        private ConnectionState(Channel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public void run(Timeout t) {
+            if (!channel.isActive() || t.isCancelled()) {
+                return;
+            }
+
+            long idle = System.nanoTime() - lastSeen;
+            if (idle < readerIdleNanos) {
+                missedPings = 0;
+                timeout = timer.newTimeout(this, readerIdleNanos - idle, TimeUnit.NANOSECONDS);
+                return;
+            }
+
+            if (missedPings >= maxMissedPings) {
+                evictQueue.offer(channel);
+                return;
+            }
+
+            missedPings++;
+            channel.writeAndFlush(DeviceMessage.heartbeat(DeviceMessage.MODE_PING));
+            timeout = timer.newTimeout(this, readerIdleNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.demo.service.connect.limit;
+
+import com.example.demo.config.NettyServerConfig;
+import com.example.demo.service.connect.AutoReadControl;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerAdapter;
+import io.netty.channel.ChannelHandlerContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 监听socket的接入控制，通过bootstrap.handler()加到所有监听socket上，共享一个实例
+ * 1. 接入速率超限时暂停accept，新连接留在内核backlog中等待，而不是接入后再断开
+ * 2. 连接总数达到上限时直接关闭新连接
+ * 3. 连接数在子连接active/inactive时增减，子连接注册失败被强制关闭时不会计入；
+ *    正在注册的连接还未计入，上限可能被短暂超出，超出量不超过同时在注册的连接数
+ * @author Marion
+ * @date 2026/10/18
+ */
+@Slf4j
+@Component
+@ChannelHandler.Sharable
+public class AcceptLimiter extends ChannelHandlerAdapter implements MeterBinder {
+
+    private final TokenBucket acceptBucket;
+    private final int maxConnections;
+
+    private final AtomicInteger connections = new AtomicInteger();
+
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder paused = new LongAdder();
+
+    public AcceptLimiter(NettyServerConfig nettyConfig) {
+        this.acceptBucket = new TokenBucket(nettyConfig.getAcceptConnectionsPerSecond(), nettyConfig.getAcceptBurst());
+        this.maxConnections = nettyConfig.getAcceptMaxConnections();
+    }
+
+    /**
+     * msg是刚accept、尚未注册的子连接
+     */
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        Channel child = (Channel) msg;
+        if (connections.get() >= maxConnections) {
+            rejected.increment();
+            child.unsafe().closeForcibly();
+            return;
+        }
+        child.pipeline().addLast(new ConnectionCounter());
+
+        if (acceptBucket.acquire() > 0 && !AutoReadControl.isSuspended(ctx.channel(), AutoReadControl.RATE_LIMIT)) {
+            paused.increment();
+            AutoReadControl.suspend(ctx.channel(), AutoReadControl.RATE_LIMIT);
+            scheduleResume(ctx.channel());
+        }
+        ctx.fireChannelRead(msg);
+    }
+
+    private void scheduleResume(Channel server) {
+        server.eventLoop().schedule(() -> {
+            if (!server.isOpen()) {
+                return;
+            }
+            if (acceptBucket.delayNanos() > 0) {
+                scheduleResume(server);
+                return;
+            }
+            AutoReadControl.resume(server, AutoReadControl.RATE_LIMIT);
+        }, Math.max(acceptBucket.delayNanos(), TimeUnit.MILLISECONDS.toNanos(1)), TimeUnit.NANOSECONDS);
+    }
+
+    public int connections() {
+        return connections.get();
+    }
+
+    /**
+     * 加到每个子连接上，active时计入连接数，inactive时减去
+     */
+    private final class ConnectionCounter extends ChannelHandlerAdapter {
+
+        private boolean counted;
+
+        @Override
+        public void handlerAdded(ChannelHandlerContext ctx) throws Exception {
+            if (ctx.channel().isActive()) {
+                count();
+            }
+        }
+
+        @Override
+        public void channelActive(ChannelHandlerContext ctx) throws Exception {
+            count();
+            ctx.fireChannelActive();
+        }
+
+        @Override
+        public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+            if (counted) {
+                counted = false;
+                connections.decrementAndGet();
+            }
+            ctx.fireChannelInactive();
+        }
+
+        private void count() {
+            if (!counted) {
+                counted = true;
+                connections.incrementAndGet();
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("netty.accept.rejected", rejected, LongAdder::sum)
+                .description("连接数达到上限而拒绝的连接")
+                .register(registry);
+        FunctionCounter.builder("netty.accept.paused", paused, LongAdder::sum)
+                .description("接入速率超限暂停accept的次数")
+                .register(registry);
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.demo.service.connect.limit;
+
+import com.example.demo.config.NettyServerConfig;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 设备帧限流配置与共享状态
+ * 1. 每个连接一个令牌桶，由RateLimitHandler持有
+ * 2. 每种devType一个令牌桶，所有连接共享；devType是2字节，按下标直接定位，不装箱
+ * @author Marion
+ * @date 2026/10/18
+ */
+@Component
+public class FrameRateLimiter implements MeterBinder {
+
+    private final double connectionRate;
+    private final int connectionBurst;
+    private final double devTypeRate;
+    private final int devTypeBurst;
+
+    private final AtomicReferenceArray<TokenBucket> devTypeBuckets = new AtomicReferenceArray<>(1 << 16);
+
+    private final LongAdder connectionThrottled = new LongAdder();
+    private final LongAdder devTypeThrottled = new LongAdder();
+
+    public FrameRateLimiter(NettyServerConfig nettyConfig) {
+        this.connectionRate = nettyConfig.getRateLimitConnectionFramesPerSecond();
+        this.connectionBurst = nettyConfig.getRateLimitConnectionBurst();
+        this.devTypeRate = nettyConfig.getRateLimitDevTypeFramesPerSecond();
+        this.devTypeBurst = nettyConfig.getRateLimitDevTypeBurst();
+    }
+
+    public TokenBucket newConnectionBucket() {
+        return new TokenBucket(connectionRate, connectionBurst);
+    }
+
+    public TokenBucket deviceTypeBucket(short devType) {
+        int index = devType & 0xFFFF;
+        TokenBucket bucket = devTypeBuckets.get(index);
+        if (bucket == null) {
+            TokenBucket created = new TokenBucket(devTypeRate, devTypeBurst);
+            bucket = devTypeBuckets.compareAndSet(index, null, created) ? created : devTypeBuckets.get(index);
+        }
+        return bucket;
+    }
+
+    void connectionThrottled() {
+        connectionThrottled.increment();
+    }
+
+    void devTypeThrottled() {
+        devTypeThrottled.increment();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("netty.ratelimit.throttled", connectionThrottled, LongAdder::sum)
+                .description("因超出速率暂停读取的次数")
+                .tag("scope", "connection")
+                .register(registry);
+        FunctionCounter.builder("netty.ratelimit.throttled", devTypeThrottled, LongAdder::sum)
+                .description("因超出速率暂停读取的次数")
+                .tag("scope", "devType")
+                .register(registry);
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.demo.service.connect.limit;
+
+import com.example.demo.service.connect.AutoReadControl;
+import com.example.demo.service.connect.codec.DeviceMessage;
+import io.netty.channel.ChannelHandlerAdapter;
+import io.netty.channel.ChannelHandlerContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按连接和devType限流，放在DeviceMessageDecoder之后，每个连接一个实例，只在EventLoop中访问
+ * 1. 每个帧先扣除连接令牌，连接未超限时再扣除devType令牌；单个连接超限后读到的帧不再推高devType令牌桶，
+ *    避免一个泛洪的连接拖慢同类型的其他设备
+ * 2. 已经读到的帧照常向后传递，不丢弃；任一令牌桶超限时暂停读取该连接，数据留在内核缓冲区，由TCP流控反压设备
+ * 3. 到期后检查两个令牌桶，仍然超限则继续等待
+ * @author Marion
+ * @date 2026/10/18
+ */
+public class RateLimitHandler extends ChannelHandlerAdapter {
+
+    private final FrameRateLimiter limiter;
+    private final TokenBucket connectionBucket;
+
+    /**
+     * 最近一帧的devType令牌桶，同一连接通常只有一种设备
+     */
+    private TokenBucket devTypeBucket;
+    private boolean resumeScheduled;
+
+    public RateLimitHandler(FrameRateLimiter limiter) {
+        this.limiter = limiter;
+        this.connectionBucket = limiter.newConnectionBucket();
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        if (msg instanceof DeviceMessage) {
+            devTypeBucket = limiter.deviceTypeBucket(((DeviceMessage) msg).devType());
+            long connectionDebt = connectionBucket.acquire();
+            long devTypeDebt = connectionDebt > 0 ? 0L : devTypeBucket.acquire();
+            if ((connectionDebt > 0 || devTypeDebt > 0) && !resumeScheduled) {
+                if (connectionDebt > 0) {
+                    limiter.connectionThrottled();
+                } else {
+                    limiter.devTypeThrottled();
+                }
+                resumeScheduled = true;
+                AutoReadControl.suspend(ctx.channel(), AutoReadControl.RATE_LIMIT);
+                scheduleResume(ctx);
+            }
+        }
+        ctx.fireChannelRead(msg);
+    }
+
+    private void scheduleResume(ChannelHandlerContext ctx) {
+        ctx.executor().schedule(() -> {
+            if (!ctx.channel().isActive()) {
+                return;
+            }
+            if (delayNanos() > 0) {
+                scheduleResume(ctx);
+                return;
+            }
+            resumeScheduled = false;
+            AutoReadControl.resume(ctx.channel(), AutoReadControl.RATE_LIMIT);
+        }, Math.max(delayNanos(), TimeUnit.MILLISECONDS.toNanos(1)), TimeUnit.NANOSECONDS);
+    }
+
+    private long delayNanos() {
+        long delay = connectionBucket.delayNanos();
+        return devTypeBucket == null ? delay : Math.max(delay, devTypeBucket.delayNanos());
+    }
+}
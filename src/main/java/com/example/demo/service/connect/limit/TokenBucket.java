@@ -0,0 +1,54 @@
+package com.example.demo.service.connect.limit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 无锁令牌桶，按GCRA(通用信元速率算法)实现
+ * 1. 只保存一个"理论到达时间"(tat)，每消耗一个令牌tat后移一个发放间隔，整个状态一次CAS更新
+ * 2. tat最多领先当前时间 burst 个间隔，即允许的突发量
+ * 3. 帧已经读到内存，不能丢弃，所以acquire总是扣除令牌，返回欠下的时间，由调用方暂停读取
+ * 可以被多个EventLoop共享(按设备类型)，也可以只在一个EventLoop中使用(按连接)，后者CAS无竞争
+ * @author Marion
+ * @date 2026/10/18
+ */
+public final class TokenBucket {
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final AtomicLong tat;
+
+    /**
+     * @param permitsPerSecond 持续速率
+     * @param burst 允许的突发量
+     */
+    public TokenBucket(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0 || burst <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond and burst must be positive");
+        }
+        this.emissionIntervalNanos = Math.max(1L, (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond));
+        this.burstToleranceNanos = emissionIntervalNanos * burst;
+        this.tat = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * 消耗一个令牌，返回超出突发量的时间，0表示未超限
+     */
+    public long acquire() {
+        long now = System.nanoTime();
+        long prev;
+        long next;
+        do {
+            prev = tat.get();
+            next = Math.max(prev, now) + emissionIntervalNanos;
+        } while (!tat.compareAndSet(prev, next));
+        return Math.max(0L, next - now - burstToleranceNanos);
+    }
+
+    /**
+     * 下一个令牌可用前还需等待的时间，0表示现在可用
+     */
+    public long delayNanos() {
+        return Math.max(0L, tat.get() + emissionIntervalNanos - burstToleranceNanos - System.nanoTime());
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.demo.service.connect.route;
+
+import com.example.demo.service.connect.codec.DeviceMessage;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerAdapter;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.util.Attribute;
+import io.netty.util.AttributeKey;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+
+/**
+ * 维护设备路由，放在DeviceMessageDecoder之后、心跳处理之前，所有连接共享一个实例
+ * 1. 连接上第一个业务帧的serial作为设备标识登记路由，心跳帧不参与
+ * 2. 连接断开时移除路由
+ * @author Marion
+ * @date 2026/10/18
+ */
+@Slf4j
+@Component
+@ChannelHandler.Sharable
+public class DeviceRouteHandler extends ChannelHandlerAdapter {
+
+    static final AttributeKey<Integer> SERIAL = AttributeKey.valueOf("deviceSerial");
+
+    @Resource
+    private DeviceRouteTable routeTable;
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        if (msg instanceof DeviceMessage) {
+            DeviceMessage message = (DeviceMessage) msg;
+            short mode = message.mode();
+            if (mode != DeviceMessage.MODE_PING && mode != DeviceMessage.MODE_PONG) {
+                register(ctx.channel(), message.serial());
+            }
+        }
+        ctx.fireChannelRead(msg);
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        Integer serial = ctx.channel().attr(SERIAL).get();
+        if (serial != null) {
+            routeTable.remove(serial, ctx.channel());
+        }
+        ctx.fireChannelInactive();
+    }
+
+    private void register(Channel channel, int serial) {
+        Attribute<Integer> attr = channel.attr(SERIAL);
+        if (attr.get() != null) {
+            return;
+        }
+        attr.set(serial);
+        Channel previous = routeTable.put(serial, channel);
+        if (previous != null && previous != channel) {
+            log.info("设备重新连接 serial={}, old={}, new={}", serial, previous.remoteAddress(), channel.remoteAddress());
+        }
+    }
+}
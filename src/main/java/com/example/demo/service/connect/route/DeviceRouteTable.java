@@ -0,0 +1,128 @@
+package com.example.demo.service.connect.route;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.netty.channel.Channel;
+import io.netty.util.collection.IntObjectHashMap;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * 设备serial -> channel 路由表
+ * 1. 按serial散列到固定数量的分段，每段一个int键的IntObjectHashMap，键不装箱
+ * 2. 每段一把StampedLock，读先走乐观读，校验失败(同段有并发写)再加读锁
+ * 3. 写只发生在连接首帧和断开时，读发生在每次下发，读远多于写
+ * @author Marion
+ * @date 2026/10/18
+ */
+@Component
+public class DeviceRouteTable implements MeterBinder {
+
+    private static final int SEGMENTS = 64;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    public DeviceRouteTable() {
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    public Channel get(int serial) {
+        return segment(serial).get(serial);
+    }
+
+    /**
+     * 登记路由，返回被替换的旧连接
+     */
+    public Channel put(int serial, Channel channel) {
+        return segment(serial).put(serial, channel);
+    }
+
+    /**
+     * 仅当当前路由仍指向该连接时移除，设备重连后旧连接断开不会删掉新路由
+     */
+    public boolean remove(int serial, Channel channel) {
+        return segment(serial).remove(serial, channel);
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("netty.devices.routed", this, DeviceRouteTable::size)
+                .description("已登记路由的设备数")
+                .register(registry);
+    }
+
+    private Segment segment(int serial) {
+        // 连续的serial分散到不同分段
+        int h = serial * 0x9E3779B9;
+        return segments[h >>> 26];
+    }
+
+    private static final class Segment {
+
+        private final StampedLock lock = new StampedLock();
+        private final IntObjectHashMap<Channel> map = new IntObjectHashMap<>();
+
+        Channel get(int serial) {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp != 0) {
+                try {
+                    Channel channel = map.get(serial);
+                    if (lock.validate(stamp)) {
+                        return channel;
+                    }
+                } catch (RuntimeException ignored) {
+                    // 并发扩容时可能读到不一致的数组，加读锁重试
+                }
+            }
+            stamp = lock.readLock();
+            try {
+                return map.get(serial);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        Channel put(int serial, Channel channel) {
+            long stamp = lock.writeLock();
+            try {
+                return map.put(serial, channel);
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        boolean remove(int serial, Channel channel) {
+            long stamp = lock.writeLock();
+            try {
+                if (map.get(serial) != channel) {
+                    return false;
+                }
+                map.remove(serial);
+                return true;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        int size() {
+            long stamp = lock.readLock();
+            try {
+                return map.size();
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+    }
+}
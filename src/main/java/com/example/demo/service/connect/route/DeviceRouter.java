@@ -0,0 +1,118 @@
+package com.example.demo.service.connect.route;
+
+import com.example.demo.service.connect.codec.DeviceMessage;
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoop;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.IntFunction;
+
+/**
+ * 按设备serial下发消息
+ * 1. 单个下发：路由表O(1)查找后writeAndFlush
+ * 2. 批量下发：按连接所属EventLoop分组，每个EventLoop执行一个任务，先全部write再统一flush
+ * 3. 设备不在线或连接不可写(发送缓冲超过高水位，设备读得比下发慢)时不再写入，返回false/不计入成功数，
+ *    由调用方决定重试或丢弃，避免慢设备的出站缓冲无限增长
+ * @author Marion
+ * @date 2026/10/18
+ */
+@Service
+public class DeviceRouter {
+
+    private final DeviceRouteTable routeTable;
+
+    public DeviceRouter(DeviceRouteTable routeTable) {
+        this.routeTable = routeTable;
+    }
+
+    public boolean isOnline(int serial) {
+        Channel channel = routeTable.get(serial);
+        return channel != null && channel.isActive();
+    }
+
+    public int onlineCount() {
+        return routeTable.size();
+    }
+
+    /**
+     * 可以下发的设备：在线并且出站缓冲低于高水位
+     */
+    public boolean isWritable(int serial) {
+        Channel channel = routeTable.get(serial);
+        return channel != null && channel.isActive() && channel.isWritable();
+    }
+
+    /**
+     * 下发给单个设备，消息所有权转移给路由器，设备不在线或连接不可写时释放消息并返回false
+     */
+    public boolean send(int serial, DeviceMessage msg) {
+        Channel channel = routeTable.get(serial);
+        if (channel == null || !channel.isActive() || !channel.isWritable()) {
+            msg.release();
+            return false;
+        }
+        channel.writeAndFlush(msg, channel.voidPromise());
+        return true;
+    }
+
+    /**
+     * 批量下发，只为在线且可写的设备调用factory创建消息，返回提交下发的设备数
+     */
+    public int sendAll(int[] serials, IntFunction<DeviceMessage> factory) {
+        Map<EventLoop, Batch> byLoop = new IdentityHashMap<>();
+        for (int serial : serials) {
+            Channel channel = routeTable.get(serial);
+            if (channel == null || !channel.isActive() || !channel.isWritable()) {
+                continue;
+            }
+            byLoop.computeIfAbsent(channel.eventLoop(), k -> new Batch()).add(channel, factory.apply(serial));
+        }
+
+        int submitted = 0;
+        for (Map.Entry<EventLoop, Batch> entry : byLoop.entrySet()) {
+            Batch batch = entry.getValue();
+            try {
+                entry.getKey().execute(batch::writeAndFlush);
+                submitted += batch.channels.size();
+            } catch (RejectedExecutionException e) {
+                batch.release();
+            }
+        }
+        return submitted;
+    }
+
+    /**
+     * 同一个EventLoop上的待发送消息
+     */
+    private static final class Batch {
+
+        private final List<Channel> channels = new ArrayList<>();
+        private final List<DeviceMessage> messages = new ArrayList<>();
+
+        void add(Channel channel, DeviceMessage msg) {
+            channels.add(channel);
+            messages.add(msg);
+        }
+
+        void writeAndFlush() {
+            for (int i = 0; i < channels.size(); i++) {
+                Channel channel = channels.get(i);
+                channel.write(messages.get(i), channel.voidPromise());
+            }
+            for (Channel channel : channels) {
+                channel.flush();
+            }
+        }
+
+        void release() {
+            for (DeviceMessage msg : messages) {
+                msg.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.demo.service.connect.transport;
+
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Netty传输层实现
+ * 1. EPOLL：Linux原生epoll，支持SO_REUSEPORT多个监听socket由内核分发accept
+ * 2. NIO：JDK NIO，跨平台兜底
+ * @author Marion
+ * @date 2026/10/18
+ */
+@Slf4j
+public enum NettyTransport {
+
+    NIO {
+        @Override
+        public EventLoopGroup newEventLoopGroup(int threads) {
+            return new NioEventLoopGroup(threads);
+        }
+
+        @Override
+        public Class<? extends ServerChannel> serverChannelClass() {
+            return NioServerSocketChannel.class;
+        }
+
+        @Override
+        public Class<? extends Channel> socketChannelClass() {
+            return NioSocketChannel.class;
+        }
+
+        @Override
+        public boolean supportsReusePort() {
+            return false;
+        }
+    },
+
+    EPOLL {
+        @Override
+        public EventLoopGroup newEventLoopGroup(int threads) {
+            return new EpollEventLoopGroup(threads);
+        }
+
+        @Override
+        public Class<? extends ServerChannel> serverChannelClass() {
+            return EpollServerSocketChannel.class;
+        }
+
+        @Override
+        public Class<? extends Channel> socketChannelClass() {
+            return EpollSocketChannel.class;
+        }
+
+        @Override
+        public boolean supportsReusePort() {
+            return true;
+        }
+    };
+
+    public abstract EventLoopGroup newEventLoopGroup(int threads);
+
+    public abstract Class<? extends ServerChannel> serverChannelClass();
+
+    /**
+     * 客户端连接使用的channel类型，本地压测客户端使用
+     */
+    public abstract Class<? extends Channel> socketChannelClass();
+
+    public abstract boolean supportsReusePort();
+
+    /**
+     * 根据配置选择传输层
+     * 1. auto：epoll可用时使用epoll，否则使用nio
+     * 2. epoll：epoll不可用时降级为nio并打印原因
+     * 3. nio：强制使用nio
+     */
+    public static NettyTransport resolve(String preferred) {
+        if ("nio".equalsIgnoreCase(preferred)) {
+            return NIO;
+        }
+
+        Throwable cause;
+        try {
+            if (Epoll.isAvailable()) {
+                return EPOLL;
+            }
+            cause = Epoll.unavailabilityCause();
+        } catch (Throwable e) {
+            cause = e;
+        }
+
+        if ("epoll".equalsIgnoreCase(preferred)) {
+            log.warn("epoll不可用，降级为nio: {}", cause == null ? "unknown" : cause.toString());
+        }
+        return NIO;
+    }
+}
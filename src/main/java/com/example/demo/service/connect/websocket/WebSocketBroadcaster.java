@@ -0,0 +1,131 @@
+package com.example.demo.service.connect.websocket;
+
+import com.example.demo.config.NettyServerConfig;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoop;
+import io.netty.handler.codec.http.websocketx.BinaryWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.WebSocketFrame;
+import io.netty.util.CharsetUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * WebSocket广播
+ * 1. 消息只编码一次到池化ByteBuf，每个channel发送共享内存的duplicate
+ * 2. 按channel所属的EventLoop分组，每个EventLoop执行一个任务，先全部write再统一flush
+ * 3. 不可写(发送缓冲超过高水位)的慢客户端直接丢弃本条消息，不堆积发送队列
+ * 4. 支持文本帧和二进制帧，开启permessage-deflate时由每个连接的压缩编码器分别压缩
+ * @author Marion
+ * @date 2026/10/18
+ */
+@Slf4j
+@Component
+public class WebSocketBroadcaster implements MeterBinder {
+
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * 广播给所有连接
+     */
+    public void broadcast(String text) {
+        broadcast(NettyServerConfig.group, text);
+    }
+
+    public void broadcast(Iterable<Channel> channels, String text) {
+        ByteBuf payload = ByteBufUtil.encodeString(PooledByteBufAllocator.DEFAULT, CharBuffer.wrap(text), CharsetUtil.UTF_8);
+        broadcast(channels, payload);
+    }
+
+    /**
+     * 广播文本消息，payload的所有权转移给广播器
+     */
+    public void broadcast(Iterable<Channel> channels, ByteBuf payload) {
+        broadcast(channels, payload, false);
+    }
+
+    /**
+     * 广播二进制消息，payload的所有权转移给广播器
+     */
+    public void broadcastBinary(Iterable<Channel> channels, ByteBuf payload) {
+        broadcast(channels, payload, true);
+    }
+
+    private void broadcast(Iterable<Channel> channels, ByteBuf payload, boolean binary) {
+        try {
+            Map<EventLoop, List<Channel>> byLoop = new IdentityHashMap<>();
+            for (Channel channel : channels) {
+                byLoop.computeIfAbsent(channel.eventLoop(), k -> new ArrayList<>()).add(channel);
+            }
+
+            for (Map.Entry<EventLoop, List<Channel>> entry : byLoop.entrySet()) {
+                List<Channel> targets = entry.getValue();
+                payload.retain();
+                try {
+                    entry.getKey().execute(() -> writeBatch(targets, payload, binary));
+                } catch (RejectedExecutionException e) {
+                    payload.release();
+                    dropped.add(targets.size());
+                }
+            }
+        } finally {
+            payload.release();
+        }
+    }
+
+    /**
+     * 在channel所属的EventLoop中执行，同一批channel共用一次任务调度
+     */
+    private void writeBatch(List<Channel> targets, ByteBuf payload, boolean binary) {
+        try {
+            for (Channel channel : targets) {
+                if (!channel.isActive() || !channel.isWritable()) {
+                    dropped.increment();
+                    continue;
+                }
+                ByteBuf content = payload.duplicate().retain();
+                WebSocketFrame frame = binary ? new BinaryWebSocketFrame(content) : new TextWebSocketFrame(content);
+                channel.write(frame, channel.voidPromise());
+                delivered.increment();
+            }
+            for (Channel channel : targets) {
+                channel.flush();
+            }
+        } finally {
+            payload.release();
+        }
+    }
+
+    public long deliveredCount() {
+        return delivered.sum();
+    }
+
+    public long droppedCount() {
+        return dropped.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("websocket.broadcast.delivered", delivered, LongAdder::sum)
+                .description("广播成功写入的消息数")
+                .register(registry);
+        FunctionCounter.builder("websocket.broadcast.dropped", dropped, LongAdder::sum)
+                .description("因客户端不可写而丢弃的消息数")
+                .register(registry);
+    }
+}
@@ -0,0 +1,261 @@
+package com.example.demo.service.connect.websocket;
+
+import com.example.demo.config.NettyServerConfig;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * WebSocket跨节点广播总线
+ * 1. 广播先发给本节点的连接，再通过Redis pub/sub通知其他节点，各节点只发给自己的连接
+ * 2. 发布放入有界队列，由单独线程批量取出后用pipeline一次发送，队列满时丢弃并计数
+ * 3. 消息格式：定长前缀[16字节nodeId][1字节类型][2字节topic长度] + topic + payload，
+ *    类型T为文本、B为二进制，payload为原始字节；topic为空表示发给所有连接；本节点发出的消息收到时忽略
+ * 4. 未开启集群时只做本地广播，二进制消息也不做拷贝
+ * @author Marion
+ * @date 2026/10/18
+ */
+@Slf4j
+@Component
+public class WebSocketClusterBus implements MessageListener, MeterBinder {
+
+    private static final byte TEXT = 'T';
+    private static final byte BINARY = 'B';
+    private static final int NODE_ID_LENGTH = 16;
+    private static final int PREFIX_LENGTH = NODE_ID_LENGTH + 1 + 2;
+    private static final int MAX_TOPIC_LENGTH = 0xFFFF;
+
+    private final byte[] nodeId = newNodeId();
+    private final StringRedisTemplate redis;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final WebSocketBroadcaster broadcaster;
+    private final WebSocketTopicRegistry topicRegistry;
+
+    private final boolean enabled;
+    private final String channel;
+    private final byte[] channelBytes;
+    private final int batchSize;
+    private final BlockingQueue<byte[]> outbound;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder received = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    private volatile boolean running;
+    private Thread publisher;
+
+    public WebSocketClusterBus(StringRedisTemplate redis, RedisMessageListenerContainer listenerContainer,
+                               WebSocketBroadcaster broadcaster, WebSocketTopicRegistry topicRegistry,
+                               @Value("${netty.websocket.cluster.enabled:false}") boolean enabled,
+                               @Value("${netty.websocket.cluster.channel:ws:broadcast}") String channel,
+                               @Value("${netty.websocket.cluster.queue-capacity:65536}") int queueCapacity,
+                               @Value("${netty.websocket.cluster.batch-size:256}") int batchSize) {
+        this.redis = redis;
+        this.listenerContainer = listenerContainer;
+        this.broadcaster = broadcaster;
+        this.topicRegistry = topicRegistry;
+        this.enabled = enabled;
+        this.channel = channel;
+        this.channelBytes = channel.getBytes(StandardCharsets.UTF_8);
+        this.batchSize = batchSize;
+        this.outbound = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        listenerContainer.addMessageListener(this, new ChannelTopic(channel));
+        running = true;
+        publisher = new Thread(this::publishLoop, "ws-cluster-publisher");
+        publisher.setDaemon(true);
+        publisher.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        publisher.join(TimeUnit.SECONDS.toMillis(5));
+        listenerContainer.removeMessageListener(this);
+    }
+
+    /**
+     * 广播给集群内所有连接
+     */
+    public void publishAll(String text) {
+        broadcaster.broadcast(NettyServerConfig.group, text);
+        if (running) {
+            enqueue(TEXT, "", text.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * 发给集群内该主题的所有订阅者
+     */
+    public void publish(String topic, String text) {
+        broadcaster.broadcast(topicRegistry.subscribers(topic), text);
+        if (running) {
+            enqueue(TEXT, topic, text.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * 二进制消息广播给集群内所有连接，payload的所有权转移给总线
+     * 开启集群时先拷贝出字节用于发布，本地广播仍使用原始payload
+     */
+    public void publishAllBinary(ByteBuf payload) {
+        if (running) {
+            byte[] bytes = new byte[payload.readableBytes()];
+            payload.getBytes(payload.readerIndex(), bytes);
+            enqueue(BINARY, "", bytes);
+        }
+        broadcaster.broadcastBinary(NettyServerConfig.group, payload);
+    }
+
+    private void enqueue(byte type, String topic, byte[] payload) {
+        byte[] topicBytes = topic.getBytes(StandardCharsets.UTF_8);
+        if (topicBytes.length > MAX_TOPIC_LENGTH) {
+            dropped.increment();
+            return;
+        }
+
+        byte[] message = new byte[PREFIX_LENGTH + topicBytes.length + payload.length];
+        ByteBuffer.wrap(message)
+                .put(nodeId)
+                .put(type)
+                .putShort((short) topicBytes.length)
+                .put(topicBytes)
+                .put(payload);
+
+        if (!outbound.offer(message)) {
+            dropped.increment();
+        }
+    }
+
+    private void publishLoop() {
+        List<byte[]> batch = new ArrayList<>(batchSize);
+        while (running || !outbound.isEmpty()) {
+            try {
+                byte[] first = outbound.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                outbound.drainTo(batch, batchSize - 1);
+                publishBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                dropped.add(batch.size());
+                log.warn("跨节点广播发布失败，丢弃 {} 条", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * 低负载时每批只有一条，不额外等待；高负载时一次往返发布多条
+     */
+    private void publishBatch(List<byte[]> batch) {
+        redis.executePipelined((RedisCallback<Object>) connection -> {
+            for (byte[] message : batch) {
+                connection.publish(channelBytes, message);
+            }
+            return null;
+        });
+        published.add(batch.size());
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        ByteBuffer body = ByteBuffer.wrap(message.getBody());
+        if (body.remaining() < PREFIX_LENGTH) {
+            log.warn("忽略格式错误的跨节点广播消息，长度 {}", body.remaining());
+            return;
+        }
+
+        // 自己发出的消息，本地已经广播过
+        if (isOwnNode(body)) {
+            return;
+        }
+
+        body.position(NODE_ID_LENGTH);
+        byte type = body.get();
+        int topicLength = body.getShort() & 0xFFFF;
+        if (topicLength > body.remaining() || (type != TEXT && type != BINARY)) {
+            log.warn("忽略格式错误的跨节点广播消息，长度 {}", body.limit());
+            return;
+        }
+
+        received.increment();
+        byte[] bytes = body.array();
+        String topic = new String(bytes, PREFIX_LENGTH, topicLength, StandardCharsets.UTF_8);
+        int payloadStart = PREFIX_LENGTH + topicLength;
+        Iterable<Channel> channels = topic.isEmpty() ? NettyServerConfig.group : topicRegistry.subscribers(topic);
+        if (type == TEXT) {
+            broadcaster.broadcast(channels, new String(bytes, payloadStart, bytes.length - payloadStart, StandardCharsets.UTF_8));
+        } else {
+            broadcaster.broadcastBinary(channels, Unpooled.wrappedBuffer(bytes, payloadStart, bytes.length - payloadStart));
+        }
+    }
+
+    private boolean isOwnNode(ByteBuffer body) {
+        for (int i = 0; i < NODE_ID_LENGTH; i++) {
+            if (body.get(i) != nodeId[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte[] newNodeId() {
+        UUID uuid = UUID.randomUUID();
+        return ByteBuffer.allocate(NODE_ID_LENGTH)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("websocket.cluster.published", published, LongAdder::sum)
+                .description("发布到其他节点的广播数")
+                .register(registry);
+        FunctionCounter.builder("websocket.cluster.received", received, LongAdder::sum)
+                .description("收到其他节点的广播数")
+                .register(registry);
+        FunctionCounter.builder("websocket.cluster.dropped", dropped, LongAdder::sum)
+                .description("队列满或发布失败而丢弃的广播数")
+                .register(registry);
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.demo.service.connect.websocket;
+
+import com.example.demo.config.NettyServerConfig;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.handler.codec.AsciiString;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.websocketx.WebSocketServerHandshaker;
+import io.netty.handler.codec.http.websocketx.WebSocketServerHandshakerFactory;
+import io.netty.util.AttributeKey;
+import io.netty.util.CharsetUtil;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+
+/**
+ * WebSocket握手阶段，无状态，所有连接共享一个实例
+ * 1. 握手工厂全局共享，不在每次握手时创建
+ * 2. handshaker保存在channel属性中，帧处理器可以无状态共享
+ * 3. 握手成功后HTTP编解码器被替换为WebSocket编解码器，本处理器也从pipeline中移除
+ * @author Marion
+ * @date 2026/10/18
+ */
+@Component
+@ChannelHandler.Sharable
+public class WebSocketHandshakeHandler extends SimpleChannelInboundHandler<FullHttpRequest> {
+
+    public static final AttributeKey<WebSocketServerHandshaker> HANDSHAKER = AttributeKey.valueOf("wsHandshaker");
+
+    private static final int HTTP_SUCCESS = 200;
+
+    @Resource
+    private WebSocketServerHandshakerFactory handshakerFactory;
+
+    @Resource
+    private NettyServerConfig nettyConfig;
+
+    /**
+     * 处理客户端向服务端发起http握手请求的业务
+     */
+    @Override
+    protected void messageReceived(ChannelHandlerContext ctx, FullHttpRequest request) throws Exception {
+        /**
+         * 1. 如果不是WebSocket握手请求，则直接返回
+         *      1-1. 解码是否成功
+         *      1-2. 路径是否匹配
+         *      1-3. Upgrade是否websocket
+         * 2. 从共享工厂中创建实例，handshake处理chanel中的request的请求
+         */
+
+        //1. 如果不是WebSocket握手请求，则直接返回
+        CharSequence upgrade = request.headers().get(HttpHeaderNames.UPGRADE);
+        if (!request.decoderResult().isSuccess()
+                || !request.uri().startsWith(nettyConfig.getWebSocketPath())
+                || upgrade == null
+                || !AsciiString.equalsIgnoreCase(HttpHeaderValues.WEBSOCKET, upgrade)) {
+            sendHttpResponse(ctx, new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.BAD_REQUEST));
+            return;
+        }
+
+        //2. 从共享工厂中创建实例，handshake处理chanel中的request的请求
+        WebSocketServerHandshaker handshaker = handshakerFactory.newHandshaker(request);
+        if (handshaker == null) {
+            WebSocketServerHandshakerFactory.sendUnsupportedVersionResponse(ctx.channel());
+            return;
+        }
+
+        ctx.channel().attr(HANDSHAKER).set(handshaker);
+        handshaker.handshake(ctx.channel(), request).addListener((ChannelFutureListener) future -> {
+            if (future.isSuccess()) {
+                NettyServerConfig.group.add(future.channel());
+            } else {
+                future.channel().close();
+            }
+        });
+        ctx.pipeline().remove(this);
+    }
+
+    /**
+     * 服务端向客户端响应消息
+     */
+    private void sendHttpResponse(ChannelHandlerContext ctx, DefaultFullHttpResponse response) {
+        /**
+         * 1. 如果响应不是200，则写入状态并关闭资源
+         * 2. 服务端向客户端发送数据
+         */
+        if (response.status().code() != HTTP_SUCCESS) {
+            ByteBuf byteBuf = Unpooled.copiedBuffer(response.status().toString(), CharsetUtil.UTF_8);
+            response.content().writeBytes(byteBuf);
+            byteBuf.release();
+        }
+
+        //2. 服务端向客户端发送数据
+        ChannelFuture channelFuture = ctx.channel().writeAndFlush(response);
+
+        if (response.status().code() != HTTP_SUCCESS) {
+            channelFuture.addListener(ChannelFutureListener.CLOSE);
+        }
+    }
+}
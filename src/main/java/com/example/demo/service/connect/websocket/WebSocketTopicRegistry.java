@@ -0,0 +1,83 @@
+package com.example.demo.service.connect.websocket;
+
+import io.netty.channel.Channel;
+import io.netty.util.AttributeKey;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * WebSocket 房间/主题订阅索引
+ * 1. topic -> channel集合，发布消息只遍历订阅者，复杂度O(订阅数)
+ * 2. 每个channel在属性中记录自己订阅的topic，断开连接时据此清理，不需要扫描全部topic
+ * 3. 最后一个订阅者离开时删除topic，避免空集合堆积
+ * @author Marion
+ * @date 2026/10/18
+ */
+@Component
+public class WebSocketTopicRegistry {
+
+    private static final AttributeKey<Set<String>> SUBSCRIPTIONS = AttributeKey.valueOf("wsSubscriptions");
+
+    private final ConcurrentMap<String, Set<Channel>> topics = new ConcurrentHashMap<>();
+
+    public void subscribe(Channel channel, String topic) {
+        topics.compute(topic, (k, channels) -> {
+            if (channels == null) {
+                channels = ConcurrentHashMap.newKeySet();
+            }
+            channels.add(channel);
+            return channels;
+        });
+        subscriptions(channel).add(topic);
+    }
+
+    public void unsubscribe(Channel channel, String topic) {
+        subscriptions(channel).remove(topic);
+        remove(channel, topic);
+    }
+
+    /**
+     * 连接断开时调用，清理该连接的所有订阅
+     */
+    public void unsubscribeAll(Channel channel) {
+        Set<String> subscribed = channel.attr(SUBSCRIPTIONS).getAndSet(null);
+        if (subscribed == null) {
+            return;
+        }
+        for (String topic : subscribed) {
+            remove(channel, topic);
+        }
+    }
+
+    public Set<Channel> subscribers(String topic) {
+        Set<Channel> channels = topics.get(topic);
+        return channels == null ? Collections.emptySet() : channels;
+    }
+
+    public int topicCount() {
+        return topics.size();
+    }
+
+    private void remove(Channel channel, String topic) {
+        topics.computeIfPresent(topic, (k, channels) -> {
+            channels.remove(channel);
+            return channels.isEmpty() ? null : channels;
+        });
+    }
+
+    private static Set<String> subscriptions(Channel channel) {
+        Set<String> subscribed = channel.attr(SUBSCRIPTIONS).get();
+        if (subscribed == null) {
+            Set<String> created = ConcurrentHashMap.newKeySet();
+            subscribed = channel.attr(SUBSCRIPTIONS).setIfAbsent(created);
+            if (subscribed == null) {
+                subscribed = created;
+            }
+        }
+        return subscribed;
+    }
+}
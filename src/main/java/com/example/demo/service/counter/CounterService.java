@@ -0,0 +1,144 @@
+package com.example.demo.service.counter;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 高并发计数服务
+ * 1. 每个计数器的总数是一个LongAdder：竞争时按线程分散到多个Cell累加，Cell使用@Contended填充，避免伪共享
+ * 2. 写入全程使用基本类型long，不装箱
+ * 3. 读取对各Cell求和，不加锁，结果是弱一致的快照
+ * 4. 计数器按名称注册，只在首次使用时创建，不随线程生命周期增长，不会泄漏
+ * 5. 同时记录最近一段时间的每秒速率，并注册到actuator(app.counter / app.counter.rate)；
+ *    速率由单独的采样线程每秒读取一次总数计算，写入路径上没有额外开销
+ * @author Marion
+ * @date 2026/10/18
+ */
+@Service
+public class CounterService implements MeterBinder {
+
+    /**
+     * 速率统计窗口
+     */
+    private static final int RATE_WINDOW_SECONDS = 10;
+
+    private final ConcurrentMap<String, NamedCounter> counters = new ConcurrentHashMap<>();
+
+    private volatile MeterRegistry registry;
+
+    private ScheduledExecutorService rateSampler;
+
+    @PostConstruct
+    public void start() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("counter-rate-");
+        threadFactory.setDaemon(true);
+        rateSampler = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        rateSampler.scheduleAtFixedRate(this::sampleRates, 1, 1, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (rateSampler != null) {
+            rateSampler.shutdownNow();
+        }
+    }
+
+    /**
+     * 每秒对所有计数器采样一次
+     */
+    void sampleRates() {
+        long now = System.nanoTime();
+        counters.values().forEach(counter -> counter.sampleRate(now));
+    }
+
+    /**
+     * 获取计数器，热点路径可以缓存返回值，省去每次按名称查找
+     */
+    public NamedCounter counter(String name) {
+        NamedCounter counter = counters.get(name);
+        if (counter == null) {
+            counter = counters.computeIfAbsent(name, k -> {
+                NamedCounter created = new NamedCounter(k, RATE_WINDOW_SECONDS);
+                MeterRegistry r = registry;
+                if (r != null) {
+                    register(r, created);
+                }
+                return created;
+            });
+        }
+        return counter;
+    }
+
+    public void increment(String name) {
+        counter(name).increment();
+    }
+
+    public void add(String name, long delta) {
+        counter(name).add(delta);
+    }
+
+    public long sum(String name) {
+        NamedCounter counter = counters.get(name);
+        return counter == null ? 0L : counter.sum();
+    }
+
+    public double perSecond(String name) {
+        NamedCounter counter = counters.get(name);
+        return counter == null ? 0D : counter.perSecond();
+    }
+
+    /**
+     * 所有计数器的当前值
+     */
+    public Map<String, Long> snapshot() {
+        Map<String, Long> snapshot = new LinkedHashMap<>();
+        counters.forEach((name, counter) -> snapshot.put(name, counter.sum()));
+        return snapshot;
+    }
+
+    /**
+     * 所有计数器最近的每秒速率
+     */
+    public Map<String, Double> rates() {
+        Map<String, Double> rates = new LinkedHashMap<>();
+        counters.forEach((name, counter) -> rates.put(name, counter.perSecond()));
+        return rates;
+    }
+
+    public void reset(String name) {
+        NamedCounter counter = counters.get(name);
+        if (counter != null) {
+            counter.reset();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+        counters.values().forEach(counter -> register(registry, counter));
+    }
+
+    private static void register(MeterRegistry registry, NamedCounter counter) {
+        FunctionCounter.builder("app.counter", counter, NamedCounter::sum)
+                .tag("name", counter.name())
+                .register(registry);
+        Gauge.builder("app.counter.rate", counter, NamedCounter::perSecond)
+                .tag("name", counter.name())
+                .baseUnit("per_second")
+                .register(registry);
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.demo.service.counter;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 命名计数器：累计总数 + 滑动窗口速率
+ * 写入只累加LongAdder，速率由CounterService每秒采样总数得出
+ * @author Marion
+ * @date 2026/10/18
+ */
+public final class NamedCounter {
+
+    private final String name;
+    private final LongAdder total = new LongAdder();
+    private final RollingRate rate;
+
+    NamedCounter(String name, int rateWindowSeconds) {
+        this.name = name;
+        this.rate = new RollingRate(rateWindowSeconds);
+    }
+
+    public void increment() {
+        add(1L);
+    }
+
+    public void add(long delta) {
+        total.add(delta);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public long sum() {
+        return total.sum();
+    }
+
+    public double perSecond() {
+        return rate.perSecond();
+    }
+
+    void sampleRate(long nanoTime) {
+        rate.sample(total.sum(), nanoTime);
+    }
+
+    void reset() {
+        total.reset();
+        rate.clear();
+    }
+}
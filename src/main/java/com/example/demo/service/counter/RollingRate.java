@@ -0,0 +1,61 @@
+package com.example.demo.service.counter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 滑动窗口速率统计
+ * 1. 不在写入路径上计数：由采样线程每秒记录一次累计总数(LongAdder.sum())，写入方只累加LongAdder，没有共享的热点缓存行
+ * 2. 环形数组保存最近windowSeconds+1次采样，速率 = (最新总数 - 最早总数) / 两次采样的间隔
+ * 3. 采样和读取都很少发生，使用synchronized即可
+ * @author Marion
+ * @date 2026/10/18
+ */
+public final class RollingRate {
+
+    private final long[] totals;
+    private final long[] sampledAt;
+    private int next;
+    private int size;
+
+    public RollingRate(int windowSeconds) {
+        // 窗口内windowSeconds个间隔需要windowSeconds+1次采样
+        this.totals = new long[windowSeconds + 1];
+        this.sampledAt = new long[windowSeconds + 1];
+    }
+
+    /**
+     * 记录一次累计总数，nanoTime为采样时刻
+     */
+    public synchronized void sample(long total, long nanoTime) {
+        totals[next] = total;
+        sampledAt[next] = nanoTime;
+        next = (next + 1) % totals.length;
+        if (size < totals.length) {
+            size++;
+        }
+    }
+
+    /**
+     * 窗口内的平均每秒计数，采样不足两次时为0
+     */
+    public synchronized double perSecond() {
+        if (size < 2) {
+            return 0D;
+        }
+        int newest = (next - 1 + totals.length) % totals.length;
+        int oldest = (next - size + totals.length) % totals.length;
+        long elapsed = sampledAt[newest] - sampledAt[oldest];
+        if (elapsed <= 0) {
+            return 0D;
+        }
+        return (totals[newest] - totals[oldest]) * (double) TimeUnit.SECONDS.toNanos(1) / elapsed;
+    }
+
+    /**
+     * 计数器重置后清空历史采样，避免出现负速率
+     */
+    public synchronized void clear() {
+        next = 0;
+        size = 0;
+    }
+}
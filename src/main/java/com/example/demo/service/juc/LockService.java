@@ -1,15 +1,17 @@
 package com.example.demo.service.juc;
 
+import com.example.demo.service.cache.LocalCache;
+import com.example.demo.service.juc.lock.SpinLock;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.util.HashMap;
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
 import java.util.concurrent.BrokenBarrierException;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.CyclicBarrier;
-import java.util.concurrent.atomic.AtomicReference;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * 高并发锁相关练习
@@ -20,7 +22,26 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
 @Service
 public class LockService {
 
-    AtomicReference<Thread> threadAtomicReference = new AtomicReference<>();
+    /**
+     * TTAS + 退避自旋锁，等待时只读不写，并使用Thread.onSpinWait()
+     */
+    private final SpinLock ttasLock = new SpinLock();
+
+    /**
+     * 读写缓存，所有调用共享一个实例，指标只注册一次
+     */
+    private final MyCache myCache = new MyCache();
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    /**
+     * 导出myCache的命中率等指标
+     */
+    @PostConstruct
+    public void bindMetrics() {
+        myCache.delegate().bindTo(meterRegistry);
+    }
 
     /**
      * 加锁
@@ -28,14 +49,12 @@ public class LockService {
     public void spinLock() {
         /**
          * 1. 查询JAVA并发包的手册
+         * 2. 可选实现见 com.example.demo.service.juc.lock：SpinLock / McsLock / SpinThenParkLock
          */
-        Thread thread = Thread.currentThread();
-        log.debug("1. lock current thread={}", thread.getName());
-
-        int i = 0;
-        while (!threadAtomicReference.compareAndSet(null, thread)) {
-            System.out.println("set success! " + i++ + thread.getName());
+        if (log.isDebugEnabled()) {
+            log.debug("1. lock current thread={}", Thread.currentThread().getName());
         }
+        ttasLock.lock();
     }
 
     /**
@@ -43,17 +62,17 @@ public class LockService {
      */
     public void spinUnLock() {
         /**
-         * 1. 判断是否是当前线程，如果是设置为null
+         * 1. 判断是否是当前线程，如果不是抛出IllegalMonitorStateException
          */
-        Thread thread = Thread.currentThread();
-        log.debug("1. unlock current thread={}", thread.getName());
-
-        threadAtomicReference.compareAndSet(thread, null);
+        if (log.isDebugEnabled()) {
+            log.debug("1. unlock current thread={}", Thread.currentThread().getName());
+        }
+        ttasLock.unlock();
     }
 
     /**
      * 实现一个自旋锁
-     * 1. 解锁失败导致自旋锁跑满CPU
+     * 1. 解锁失败导致自旋锁跑满CPU(原实现每次CAS失败都打印日志，已改为TTAS+退避)
      */
     public void testSpinLock() {
         /**
@@ -98,11 +117,9 @@ public class LockService {
     }
 
     /**
-     * 2. 读写锁
+     * 2. 并发读写缓存
      */
     public void testRWLock() {
-        MyCache myCache = new MyCache();
-
         for (int i = 0; i < 5; i++) {
             int finalI = i;
             new Thread(() -> {
@@ -119,48 +136,30 @@ public class LockService {
     }
 
     /**
-     * 自定义读写锁缓存类
+     * 自定义缓存类
+     * 原实现是HashMap + ReentrantReadWriteLock，写入全部串行且每次读写都打印日志，
+     * 现在委托给LocalCache(Caffeine)，读无锁、写按桶加锁、容量有界
      */
     public class MyCache {
 
-        HashMap<String, Object> map = new HashMap<>();
-        ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final LocalCache<String, Object> cache = LocalCache.<String, Object>builder("myCache")
+                .maximumSize(10_000)
+                .build();
 
         public void put(String key, Object val) {
-            lock.writeLock().lock();
-            try {
-                map.put(key, val);
-                log.debug("write key={}, val={}", key, val);
-            } catch (Exception e) {
-                e.printStackTrace();
-            } finally {
-                lock.writeLock().unlock();
-            }
+            cache.put(key, val);
         }
 
         public Object get(String key) {
-            lock.readLock().lock();
-            try {
-                log.debug("read key={}", key);
-                return map.get(key);
-            } catch (Exception e) {
-                e.printStackTrace();
-            } finally {
-                lock.readLock().unlock();
-            }
-            return null;
+            return cache.getIfPresent(key);
         }
 
         public void clear() {
-            lock.writeLock().lock();
-            try {
-                map.clear();
-                log.debug("clear map");
-            } catch (Exception e) {
-                e.printStackTrace();
-            } finally {
-                lock.writeLock().unlock();
-            }
+            cache.invalidateAll();
+        }
+
+        public LocalCache<String, Object> delegate() {
+            return cache;
         }
     }
 
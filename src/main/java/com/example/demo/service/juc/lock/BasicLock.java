@@ -0,0 +1,26 @@
+package com.example.demo.service.juc.lock;
+
+/**
+ * 只包含lock/tryLock/unlock的互斥锁
+ * 自旋类锁排队后无法放弃，也没有挂起等待的能力，不实现java.util.concurrent.locks.Lock中
+ * 可中断、超时获取和Condition相关的方法
+ * @author Marion
+ * @date 2026/10/18
+ */
+public interface BasicLock {
+
+    /**
+     * 获取锁，获取不到时一直等待
+     */
+    void lock();
+
+    /**
+     * 锁空闲或当前线程已持有时获取成功，否则立即返回false
+     */
+    boolean tryLock();
+
+    /**
+     * 释放锁，非持有线程调用抛出IllegalMonitorStateException
+     */
+    void unlock();
+}
@@ -0,0 +1,107 @@
+package com.example.demo.service.juc.lock;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 可重入MCS队列锁
+ * 1. 等待线程按到达顺序排队(FIFO)，锁公平地逐个交接
+ * 2. 每个线程只在自己的节点上自旋，解锁只写后继节点，竞争时没有全局缓存行争抢
+ * 3. 排队后无法中途退出，只提供lock/tryLock/unlock，不实现可中断和超时获取
+ * @author Marion
+ * @date 2026/10/18
+ */
+public class McsLock implements BasicLock {
+
+    private static final class QNode {
+        volatile QNode next;
+        volatile boolean locked;
+    }
+
+    private final AtomicReference<QNode> tail = new AtomicReference<>();
+
+    /**
+     * 每个线程复用自己的节点，解锁交接完成后节点即可再次使用
+     */
+    private final ThreadLocal<QNode> myNode = ThreadLocal.withInitial(QNode::new);
+
+    private volatile Thread owner;
+
+    /**
+     * 重入次数，只有owner线程读写
+     */
+    private int holds;
+
+    @Override
+    public void lock() {
+        Thread current = Thread.currentThread();
+        if (owner == current) {
+            holds++;
+            return;
+        }
+
+        QNode node = myNode.get();
+        node.next = null;
+        node.locked = true;
+        QNode pred = tail.getAndSet(node);
+        if (pred != null) {
+            pred.next = node;
+            while (node.locked) {
+                Thread.onSpinWait();
+            }
+        }
+        owner = current;
+        holds = 1;
+    }
+
+    @Override
+    public boolean tryLock() {
+        Thread current = Thread.currentThread();
+        if (owner == current) {
+            holds++;
+            return true;
+        }
+
+        QNode node = myNode.get();
+        node.next = null;
+        node.locked = false;
+        if (tail.compareAndSet(null, node)) {
+            owner = current;
+            holds = 1;
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void unlock() {
+        if (owner != Thread.currentThread()) {
+            throw new IllegalMonitorStateException("current thread is not owner");
+        }
+        if (--holds > 0) {
+            return;
+        }
+        owner = null;
+
+        QNode node = myNode.get();
+        QNode next = node.next;
+        if (next == null) {
+            // 没有后继，直接释放
+            if (tail.compareAndSet(node, null)) {
+                return;
+            }
+            // 后继已入队但还没有链接到当前节点，等待链接完成
+            while ((next = node.next) == null) {
+                Thread.onSpinWait();
+            }
+        }
+        next.locked = false;
+    }
+
+    public boolean isHeldByCurrentThread() {
+        return owner == Thread.currentThread();
+    }
+
+    public int getHoldCount() {
+        return isHeldByCurrentThread() ? holds : 0;
+    }
+}
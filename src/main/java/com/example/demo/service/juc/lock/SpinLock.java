@@ -0,0 +1,86 @@
+package com.example.demo.service.juc.lock;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 可重入自旋锁 TTAS(test-test-and-set) + 指数退避
+ * 1. 先读owner，空闲时才CAS，等待期间只读本地缓存行，不会反复使缓存行失效
+ * 2. CAS失败后退避，退避次数指数增长，降低高竞争时的总线流量
+ * 3. 自旋使用Thread.onSpinWait()，提示CPU当前处于自旋(x86 PAUSE)
+ * 4. 非owner线程解锁抛出IllegalMonitorStateException
+ * 适用于临界区极短、持锁线程不会阻塞的场景，临界区较长时使用SpinThenParkLock
+ * @author Marion
+ * @date 2026/10/18
+ */
+public class SpinLock implements BasicLock {
+
+    private static final int MIN_BACKOFF = 4;
+    private static final int MAX_BACKOFF = 1024;
+
+    private final AtomicReference<Thread> owner = new AtomicReference<>();
+
+    /**
+     * 重入次数，只有owner线程读写
+     */
+    private int holds;
+
+    @Override
+    public void lock() {
+        Thread current = Thread.currentThread();
+        if (owner.get() == current) {
+            holds++;
+            return;
+        }
+
+        int backoff = MIN_BACKOFF;
+        for (;;) {
+            while (owner.get() != null) {
+                Thread.onSpinWait();
+            }
+            if (owner.compareAndSet(null, current)) {
+                holds = 1;
+                return;
+            }
+            backoff = backoff(backoff);
+        }
+    }
+
+    @Override
+    public boolean tryLock() {
+        Thread current = Thread.currentThread();
+        if (owner.get() == current) {
+            holds++;
+            return true;
+        }
+        if (owner.get() == null && owner.compareAndSet(null, current)) {
+            holds = 1;
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void unlock() {
+        if (owner.get() != Thread.currentThread()) {
+            throw new IllegalMonitorStateException("current thread is not owner");
+        }
+        if (--holds == 0) {
+            owner.lazySet(null);
+        }
+    }
+
+    public boolean isHeldByCurrentThread() {
+        return owner.get() == Thread.currentThread();
+    }
+
+    public int getHoldCount() {
+        return isHeldByCurrentThread() ? holds : 0;
+    }
+
+    private static int backoff(int backoff) {
+        for (int i = 0; i < backoff; i++) {
+            Thread.onSpinWait();
+        }
+        return Math.min(backoff << 1, MAX_BACKOFF);
+    }
+}
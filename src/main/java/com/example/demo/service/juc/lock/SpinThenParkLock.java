@@ -0,0 +1,132 @@
+package com.example.demo.service.juc.lock;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.AbstractQueuedSynchronizer;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * 先自旋后挂起的可重入锁
+ * 1. 获取失败时先自旋spins次，持锁线程很快释放时避免park/unpark的上下文切换
+ * 2. 自旋失败后进入AQS队列挂起，不会长时间占用CPU
+ * 3. 非公平，自旋线程可能先于队列中的线程获得锁
+ * @author Marion
+ * @date 2026/10/18
+ */
+public class SpinThenParkLock implements Lock, BasicLock {
+
+    private static final int DEFAULT_SPINS = 128;
+
+    private final Sync sync = new Sync();
+    private final int spins;
+
+    public SpinThenParkLock() {
+        this(DEFAULT_SPINS);
+    }
+
+    public SpinThenParkLock(int spins) {
+        this.spins = spins;
+    }
+
+    private static final class Sync extends AbstractQueuedSynchronizer {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean tryAcquire(int acquires) {
+            Thread current = Thread.currentThread();
+            int c = getState();
+            if (c == 0) {
+                if (compareAndSetState(0, acquires)) {
+                    setExclusiveOwnerThread(current);
+                    return true;
+                }
+            } else if (getExclusiveOwnerThread() == current) {
+                setState(c + acquires);
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        protected boolean tryRelease(int releases) {
+            if (getExclusiveOwnerThread() != Thread.currentThread()) {
+                throw new IllegalMonitorStateException("current thread is not owner");
+            }
+            int c = getState() - releases;
+            boolean free = c == 0;
+            if (free) {
+                setExclusiveOwnerThread(null);
+            }
+            setState(c);
+            return free;
+        }
+
+        @Override
+        protected boolean isHeldExclusively() {
+            return getExclusiveOwnerThread() == Thread.currentThread();
+        }
+
+        Condition newCondition() {
+            return new ConditionObject();
+        }
+
+        int getHoldCount() {
+            return isHeldExclusively() ? getState() : 0;
+        }
+    }
+
+    @Override
+    public void lock() {
+        if (spinAcquire()) {
+            return;
+        }
+        sync.acquire(1);
+    }
+
+    @Override
+    public void lockInterruptibly() throws InterruptedException {
+        if (spinAcquire()) {
+            return;
+        }
+        sync.acquireInterruptibly(1);
+    }
+
+    @Override
+    public boolean tryLock() {
+        return sync.tryAcquire(1);
+    }
+
+    @Override
+    public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+        return spinAcquire() || sync.tryAcquireNanos(1, unit.toNanos(time));
+    }
+
+    @Override
+    public void unlock() {
+        sync.release(1);
+    }
+
+    @Override
+    public Condition newCondition() {
+        return sync.newCondition();
+    }
+
+    public boolean isHeldByCurrentThread() {
+        return sync.isHeldExclusively();
+    }
+
+    public int getHoldCount() {
+        return sync.getHoldCount();
+    }
+
+    private boolean spinAcquire() {
+        for (int i = 0; i < spins; i++) {
+            if (sync.tryAcquire(1)) {
+                return true;
+            }
+            Thread.onSpinWait();
+        }
+        return false;
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.demo.service.persist;
+
+import com.example.demo.model.DeviceFrameRecord;
+import com.example.demo.service.connect.codec.DeviceMessage;
+import com.example.demo.service.connect.dispatch.DeviceMessageListener;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 设备帧异步批量落库(write-behind)
+ * 1. 业务线程只把帧拷贝后放入有界队列，不直接访问数据库
+ * 2. 单独的刷盘线程按条数或时间间隔(先到为准)批量insert，配合rewriteBatchedStatements合并为多值insert
+ * 3. 队列满时阻塞offload线程，连接的积压达到高水位后Netty停止读取，背压传递到设备端
+ * 4. 停机时在Netty服务器排空之后停止，刷完队列中剩余的帧
+ * @author Marion
+ * @date 2026/10/18
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "device.persist.enabled", havingValue = "true")
+public class DeviceFrameWriter implements DeviceMessageListener, SmartLifecycle {
+
+    static final String INSERT_SQL = "INSERT INTO device_frame (serial, dev_type, frame_mode, ver, body, received_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?)";
+
+    /**
+     * 队列满时每次等待的时间，等待期间检查是否已停机
+     */
+    private static final long OFFER_WAIT_MILLIS = 100L;
+
+    /**
+     * 刷盘线程每次poll的最长等待，刷盘间隔较长时也能及时感知停机
+     */
+    private static final long POLL_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BlockingQueue<DeviceFrameRecord> queue;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+
+    private final Counter persisted;
+    private final Counter failed;
+    private final Counter dropped;
+
+    private volatile boolean running;
+    private Thread flusher;
+    /**
+     * 已出队尚未落库的帧，只由刷盘线程访问
+     */
+    private List<DeviceFrameRecord> batch;
+
+    public DeviceFrameWriter(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry,
+                             @Value("${device.persist.queue-capacity:65536}") int queueCapacity,
+                             @Value("${device.persist.batch-size:500}") int batchSize,
+                             @Value("${device.persist.flush-interval-millis:200}") long flushIntervalMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+
+        this.persisted = Counter.builder("device.persist.frames").tag("result", "success").register(meterRegistry);
+        this.failed = Counter.builder("device.persist.frames").tag("result", "failed").register(meterRegistry);
+        this.dropped = Counter.builder("device.persist.frames").tag("result", "dropped").register(meterRegistry);
+        Gauge.builder("device.persist.queue.size", queue, BlockingQueue::size).register(meterRegistry);
+    }
+
+    /**
+     * 在offload线程中调用，包体拷贝后入队，消息随后由分发器释放
+     */
+    @Override
+    public void onMessage(Channel channel, DeviceMessage msg) throws InterruptedException {
+        ByteBuf body = msg.body();
+        byte[] bytes = new byte[body.readableBytes()];
+        body.getBytes(body.readerIndex(), bytes);
+
+        DeviceFrameRecord record = new DeviceFrameRecord();
+        record.setSerial(msg.serial());
+        record.setDevType(msg.devType());
+        record.setMode(msg.mode());
+        record.setVer(msg.ver());
+        record.setBody(bytes);
+        record.setReceivedAt(System.currentTimeMillis());
+
+        while (!queue.offer(record, OFFER_WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+            if (!running) {
+                dropped.increment();
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        batch = new ArrayList<>(batchSize);
+        flusher = new Thread(this::flushLoop, "device-frame-writer");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        int remaining = queue.size() + (flusher.isAlive() ? batch.size() : 0);
+        if (remaining > 0) {
+            log.warn("停机时仍有 {} 帧未落库", remaining);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * 阶段低于Netty服务器，Netty排空在途帧之后才停止
+     */
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE - 2;
+    }
+
+    public int queueSize() {
+        return queue.size();
+    }
+
+    private void flushLoop() {
+        long deadline = System.nanoTime() + flushIntervalNanos;
+
+        while (running || !queue.isEmpty()) {
+            try {
+                long wait = Math.min(deadline - System.nanoTime(), POLL_WAIT_NANOS);
+                DeviceFrameRecord record = wait > 0 ? queue.poll(wait, TimeUnit.NANOSECONDS) : queue.poll();
+                if (record != null) {
+                    batch.add(record);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+
+            if (batch.size() >= batchSize || !running || System.nanoTime() - deadline >= 0) {
+                flush(batch);
+                batch.clear();
+                deadline = System.nanoTime() + flushIntervalNanos;
+            }
+        }
+        flush(batch);
+        batch.clear();
+    }
+
+    void flush(List<DeviceFrameRecord> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    DeviceFrameRecord record = batch.get(i);
+                    ps.setInt(1, record.getSerial());
+                    ps.setShort(2, record.getDevType());
+                    ps.setShort(3, record.getMode());
+                    ps.setShort(4, record.getVer());
+                    ps.setBytes(5, record.getBody());
+                    ps.setLong(6, record.getReceivedAt());
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return batch.size();
+                }
+            });
+            persisted.increment(batch.size());
+        } catch (Exception e) {
+            failed.increment(batch.size());
+            log.error("设备帧批量落库失败，丢弃 {} 帧", batch.size(), e);
+        }
+    }
+}
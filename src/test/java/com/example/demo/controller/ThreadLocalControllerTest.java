@@ -0,0 +1,60 @@
+package com.example.demo.controller;
+
+import com.example.demo.service.counter.CounterService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * @author Marion
+ * @date 2026/10/18
+ */
+class ThreadLocalControllerTest {
+
+    private final CounterService counterService = new CounterService();
+    private final ScheduledExecutorService delayScheduler = Executors.newSingleThreadScheduledExecutor();
+    private final MockMvc mockMvc = MockMvcBuilders
+            .standaloneSetup(new ThreadLocalController(counterService, delayScheduler))
+            .build();
+
+    @AfterEach
+    void shutdown() {
+        delayScheduler.shutdownNow();
+    }
+
+    @Test
+    void testAddAsync() throws Exception {
+        assertAsyncAdd("/add/async");
+    }
+
+    @Test
+    void testAddFuture() throws Exception {
+        assertAsyncAdd("/add/future");
+    }
+
+    private void assertAsyncAdd(String path) throws Exception {
+        MvcResult result = mockMvc.perform(get(path))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string("1"));
+        assertEquals(1, counterService.sum("age"));
+
+        mockMvc.perform(get("/get"))
+                .andExpect(content().string("1"));
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.demo.loadtest;
+
+import com.example.demo.service.connect.codec.DeviceMessage;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.util.ReferenceCountUtil;
+
+/**
+ * 自定义16字节包头协议的压测连接
+ * 1. serial是设备标识，每个连接使用固定的serial(连接编号)，服务端按serial注册路由
+ * 2. 每个请求先发送dataFrames个业务帧(进入offload线程池和监听器)，再发送一个PING
+ * 3. 服务端在EventLoop中按顺序回复PONG，PONG不带请求序号，按到达顺序与PING匹配，以PING->PONG作为往返延迟
+ * @author Marion
+ * @date 2026/10/18
+ */
+final class DeviceLoadConnection extends LoadConnection {
+
+    private static final short MODE_DATA = 1;
+
+    private final int serial;
+    private final int dataFrames;
+    private final ByteBuf body;
+
+    DeviceLoadConnection(LoadStats stats, long intervalNanos, int serial, int dataFrames, ByteBuf body) {
+        super(stats, intervalNanos);
+        this.serial = serial;
+        this.dataFrames = dataFrames;
+        this.body = body;
+    }
+
+    @Override
+    public void channelActive(ChannelHandlerContext ctx) throws Exception {
+        ready();
+        ctx.fireChannelActive();
+    }
+
+    @Override
+    protected void send(ChannelHandlerContext ctx, long seq) {
+        for (int i = 0; i < dataFrames; i++) {
+            ctx.write(DeviceMessage.newInstance((short) 1, (short) 1, (short) 1, MODE_DATA, serial,
+                    body.duplicate().retain()), ctx.voidPromise());
+        }
+        ctx.write(DeviceMessage.newInstance((short) 1, (short) 1, (short) 1, DeviceMessage.MODE_PING, serial, null),
+                ctx.voidPromise());
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        try {
+            if (msg instanceof DeviceMessage && ((DeviceMessage) msg).mode() == DeviceMessage.MODE_PONG) {
+                onNextResponse();
+            }
+        } finally {
+            ReferenceCountUtil.release(msg);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.demo.loadtest;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.util.ReferenceCountUtil;
+
+/**
+ * HTTP/1.1 keep-alive压测连接，请求按计划流水线发送，响应按顺序匹配
+ * 非200响应记为unexpected，但仍计入延迟
+ * @author Marion
+ * @date 2026/10/18
+ */
+final class HttpLoadConnection extends LoadConnection {
+
+    private final String hostHeader;
+    private final String path;
+
+    HttpLoadConnection(LoadStats stats, long intervalNanos, String hostHeader, String path) {
+        super(stats, intervalNanos);
+        this.hostHeader = hostHeader;
+        this.path = path;
+    }
+
+    @Override
+    public void channelActive(ChannelHandlerContext ctx) throws Exception {
+        ready();
+        ctx.fireChannelActive();
+    }
+
+    @Override
+    protected void send(ChannelHandlerContext ctx, long seq) {
+        FullHttpRequest request = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, path);
+        request.headers().set("Host", hostHeader);
+        ctx.write(request, ctx.voidPromise());
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        try {
+            if (msg instanceof FullHttpResponse) {
+                if (!HttpResponseStatus.OK.equals(((FullHttpResponse) msg).status())) {
+                    stats.unexpected();
+                }
+                onNextResponse();
+            }
+        } finally {
+            ReferenceCountUtil.release(msg);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.demo.loadtest;
+
+import io.netty.channel.ChannelHandlerAdapter;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.util.concurrent.ScheduledFuture;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 压测连接基类，所有状态只在连接所属的EventLoop中访问
+ * 1. 按固定间隔计算每个请求的预定发送时间，tick时补发所有已到期的请求
+ * 2. 延迟从预定发送时间算起，客户端或服务端卡顿期间积压的请求同样计入，避免coordinated omission
+ * 3. 请求带递增序号，响应按序号匹配；跳过的序号记为丢失(例如服务端在连接不可写时丢弃广播)
+ * @author Marion
+ * @date 2026/10/18
+ */
+abstract class LoadConnection extends ChannelHandlerAdapter {
+
+    /**
+     * tick间隔上限，请求间隔更短时每次tick批量发送
+     */
+    private static final long MAX_TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    protected final LoadStats stats;
+
+    private final long intervalNanos;
+
+    private ChannelHandlerContext ctx;
+    private ScheduledFuture<?> ticker;
+
+    /**
+     * 预定发送时间环形数组，下标为序号，容量不足时扩容
+     */
+    private long[] intended = new long[1024];
+    private long nextSeq;
+    private long expectedSeq;
+    private long nextIntended;
+
+    protected LoadConnection(LoadStats stats, long intervalNanos) {
+        this.stats = stats;
+        this.intervalNanos = intervalNanos;
+    }
+
+    @Override
+    public void handlerAdded(ChannelHandlerContext ctx) throws Exception {
+        this.ctx = ctx;
+    }
+
+    /**
+     * 连接就绪(TCP连接建立或WebSocket握手完成)后由子类调用
+     */
+    protected void ready() {
+        stats.ready(this);
+    }
+
+    /**
+     * 开始按计划发送，firstIntended为第一个请求的预定时间
+     */
+    void start(long firstIntended) {
+        ctx.executor().execute(() -> {
+            nextIntended = firstIntended;
+            long tick = Math.min(intervalNanos, MAX_TICK_NANOS);
+            long delay = Math.max(0, firstIntended - System.nanoTime());
+            ticker = ctx.executor().scheduleAtFixedRate(this::tick, delay, tick, TimeUnit.NANOSECONDS);
+        });
+    }
+
+    void stop() {
+        ctx.executor().execute(() -> {
+            if (ticker != null) {
+                ticker.cancel(false);
+            }
+        });
+    }
+
+    long outstanding() {
+        return nextSeq - expectedSeq;
+    }
+
+    private void tick() {
+        if (!ctx.channel().isActive()) {
+            ticker.cancel(false);
+            return;
+        }
+        long now = System.nanoTime();
+        boolean sent = false;
+        while (nextIntended <= now) {
+            long seq = nextSeq++;
+            ensureCapacity();
+            intended[(int) (seq & (intended.length - 1))] = nextIntended;
+            send(ctx, seq);
+            nextIntended += intervalNanos;
+            sent = true;
+            stats.sent();
+        }
+        if (sent) {
+            ctx.flush();
+        }
+    }
+
+    /**
+     * 子类收到响应后调用
+     */
+    protected void onResponse(long seq) {
+        if (seq < expectedSeq || seq >= nextSeq) {
+            stats.unexpected();
+            return;
+        }
+        if (seq > expectedSeq) {
+            stats.lost(seq - expectedSeq);
+        }
+        long latency = System.nanoTime() - intended[(int) (seq & (intended.length - 1))];
+        stats.record(latency);
+        expectedSeq = seq + 1;
+    }
+
+    /**
+     * 响应不带序号、按请求顺序返回时调用(HTTP/1.1)
+     */
+    protected void onNextResponse() {
+        onResponse(expectedSeq);
+    }
+
+    /**
+     * 写入一个请求，不需要flush
+     */
+    protected abstract void send(ChannelHandlerContext ctx, long seq);
+
+    private void ensureCapacity() {
+        if (nextSeq - expectedSeq <= intended.length) {
+            return;
+        }
+        long[] grown = new long[intended.length << 1];
+        for (long s = expectedSeq; s < nextSeq - 1; s++) {
+            grown[(int) (s & (grown.length - 1))] = intended[(int) (s & (intended.length - 1))];
+        }
+        intended = grown;
+    }
+}
@@ -0,0 +1,246 @@
+package com.example.demo.loadtest;
+
+import com.example.demo.service.connect.codec.DeviceFrameDecoder;
+import com.example.demo.service.connect.codec.DeviceMessageDecoder;
+import com.example.demo.service.connect.codec.DeviceMessageEncoder;
+import com.example.demo.service.connect.codec.InFlightFrames;
+import com.example.demo.service.connect.transport.NettyTransport;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.EventLoopGroup;
+import io.netty.handler.codec.http.HttpClientCodec;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.websocketx.WebSocketClientHandshakerFactory;
+import io.netty.handler.codec.http.websocketx.WebSocketVersion;
+import org.HdrHistogram.Histogram;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 本地压测客户端，驱动 NettyServerBootStrap(设备协议)、WebSocketServerBootStrap 或HTTP接口
+ * 先启动应用，再执行：
+ * ./gradlew loadTest -Dload.mode=device -Dload.connections=1000 -Dload.rate=50000
+ * ./gradlew loadTest -Dload.mode=websocket -Dload.connections=200 -Dload.rate=20000
+ * ./gradlew loadTest -Dload.mode=http -Dload.path=/add/async -Dload.connections=1000 -Dload.rate=5000
+ * HTTP/1.1同一连接上的请求按顺序处理，连接数至少为 速率 * 单次耗时
+ *
+ * 参数(系统属性)：
+ * load.mode              device/websocket/http，默认device
+ * load.host              默认127.0.0.1
+ * load.port              默认device为10001，websocket为8888，http为8087
+ * load.path              websocket路径，默认/websocket；http请求路径，默认/add
+ * load.connections       连接数，默认100
+ * load.rate              所有连接合计每秒请求数，默认10000
+ * load.warmup-seconds    预热时长，不计入结果，默认5
+ * load.duration-seconds  统计时长，默认30
+ * load.data-frames       device模式下每个PING前附带的业务帧数，默认0
+ * load.body-length       业务帧包体长度，默认64
+ * load.transport         auto/epoll/nio，默认auto
+ * load.threads           客户端EventLoop线程数，默认CPU核心数
+ * load.histogram-file    输出完整的延迟分布(ms)，默认不输出
+ * load.server-pid        服务端进程号，同一台Linux机器上压测时读取/proc/{pid}/status的VmRSS，
+ *                        输出建连前、全部连接就绪后和压测结束时的常驻内存及每连接增量，默认不统计
+ *
+ * 连接规模下的内存占用，例如5万设备连接：
+ * ./gradlew loadTest -Dload.connections=50000 -Dload.rate=50000 -Dload.server-pid=$(pgrep -f DemoApplication)
+ * 客户端需要足够的文件描述符(ulimit -n)和本地端口(net.ipv4.ip_local_port_range)
+ *
+ * 延迟从每个请求的预定发送时间算起，见 LoadConnection
+ * @author Marion
+ * @date 2026/10/18
+ */
+public final class LoadGenerator {
+
+    private static final double NANOS_PER_MS = 1_000_000.0;
+
+    private final String mode = System.getProperty("load.mode", "device");
+    private final String host = System.getProperty("load.host", "127.0.0.1");
+    private final int port = Integer.getInteger("load.port", defaultPort(mode));
+    private final String path = System.getProperty("load.path", "http".equals(mode) ? "/add" : "/websocket");
+    private final int connections = Integer.getInteger("load.connections", 100);
+    private final int rate = Integer.getInteger("load.rate", 10_000);
+    private final int warmupSeconds = Integer.getInteger("load.warmup-seconds", 5);
+    private final int durationSeconds = Integer.getInteger("load.duration-seconds", 30);
+    private final int dataFrames = Integer.getInteger("load.data-frames", 0);
+    private final int bodyLength = Integer.getInteger("load.body-length", 64);
+    private final String transportName = System.getProperty("load.transport", "auto");
+    private final int threads = Integer.getInteger("load.threads", Runtime.getRuntime().availableProcessors());
+    private final String histogramFile = System.getProperty("load.histogram-file");
+    private final String serverPid = System.getProperty("load.server-pid");
+
+    public static void main(String[] args) throws Exception {
+        new LoadGenerator().run();
+    }
+
+    private void run() throws Exception {
+        NettyTransport transport = NettyTransport.resolve(transportName);
+        EventLoopGroup group = transport.newEventLoopGroup(threads);
+        LoadStats stats = new LoadStats(connections);
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) * (double) connections / rate);
+        ByteBuf body = Unpooled.unreleasableBuffer(Unpooled.directBuffer(bodyLength).writeZero(bodyLength));
+
+        System.out.printf("mode=%s target=%s:%d transport=%s connections=%d rate=%d/s interval=%.3fms%n",
+                mode, host, port, transport, connections, rate, intervalNanos / NANOS_PER_MS);
+
+        long rssBefore = serverRssKb();
+        try {
+            Bootstrap bootstrap = new Bootstrap()
+                    .group(group)
+                    .channel(transport.socketChannelClass())
+                    .option(ChannelOption.TCP_NODELAY, true)
+                    .option(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT);
+
+            for (int i = 0; i < connections; i++) {
+                int id = i;
+                bootstrap.handler(new ChannelInitializer<Channel>() {
+                    @Override
+                    protected void initChannel(Channel ch) throws Exception {
+                        ChannelPipeline p = ch.pipeline();
+                        if ("http".equals(mode)) {
+                            p.addLast(new HttpClientCodec());
+                            p.addLast(new HttpObjectAggregator(65536));
+                            p.addLast(new HttpLoadConnection(stats, intervalNanos, host + ":" + port, path));
+                        } else if ("websocket".equals(mode)) {
+                            p.addLast(new HttpClientCodec());
+                            p.addLast(new HttpObjectAggregator(65536));
+                            p.addLast(new WebSocketLoadConnection(stats, intervalNanos,
+                                    WebSocketClientHandshakerFactory.newHandshaker(
+                                            new URI("ws://" + host + ":" + port + path),
+                                            WebSocketVersion.V13, null, false, null),
+                                    id));
+                        } else {
+                            p.addLast(new DeviceFrameDecoder(65536));
+                            p.addLast(new DeviceMessageDecoder(new InFlightFrames()));
+                            p.addLast(DeviceMessageEncoder.INSTANCE);
+                            p.addLast(new DeviceLoadConnection(stats, intervalNanos, id, dataFrames, body));
+                        }
+                    }
+                });
+                bootstrap.connect(host, port).sync();
+            }
+
+            if (!stats.allReady().await(30, TimeUnit.SECONDS)) {
+                System.out.printf("只有 %d/%d 个连接就绪%n", connections - stats.allReady().getCount(), connections);
+                return;
+            }
+            long rssConnected = serverRssKb();
+            reportRss("connected", rssBefore, rssConnected);
+
+            // 各连接的起始时间错开，请求均匀分布在每个间隔内
+            long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+            int index = 0;
+            for (LoadConnection connection : stats.connections()) {
+                connection.start(start + intervalNanos * index++ / connections);
+            }
+
+            Histogram total = measure(stats);
+
+            for (LoadConnection connection : stats.connections()) {
+                connection.stop();
+            }
+            report(stats, total);
+            reportRss("after load", rssBefore, serverRssKb());
+        } finally {
+            group.shutdownGracefully(0, 2, TimeUnit.SECONDS).syncUninterruptibly();
+        }
+    }
+
+    /**
+     * 服务端常驻内存(KB)，未指定进程号或无法读取时返回-1
+     */
+    private long serverRssKb() {
+        if (serverPid == null) {
+            return -1;
+        }
+        try {
+            for (String line : Files.readAllLines(Paths.get("/proc", serverPid, "status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.substring("VmRSS:".length()).replace("kB", "").trim());
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            System.out.printf("无法读取进程 %s 的VmRSS: %s%n", serverPid, e);
+        }
+        return -1;
+    }
+
+    private void reportRss(String phase, long before, long now) {
+        if (before < 0 || now < 0) {
+            return;
+        }
+        System.out.printf("server rss   %-10s %dMB (+%dMB, %.1fKB/connection)%n",
+                phase, now / 1024, (now - before) / 1024, (now - before) / (double) connections);
+    }
+
+    private static int defaultPort(String mode) {
+        switch (mode) {
+            case "websocket":
+                return 8888;
+            case "http":
+                return 8087;
+            default:
+                return 10001;
+        }
+    }
+
+    /**
+     * 每秒输出一次区间统计，预热结束后的区间累加到总直方图
+     */
+    private Histogram measure(LoadStats stats) throws InterruptedException {
+        Histogram total = new Histogram(3);
+        Histogram interval = null;
+        long lastSent = 0;
+        long lastReceived = 0;
+        for (int second = 1; second <= warmupSeconds + durationSeconds; second++) {
+            Thread.sleep(1000L);
+            interval = stats.interval(interval);
+            long sent = stats.sentCount();
+            long received = stats.receivedCount();
+            boolean warmup = second <= warmupSeconds;
+            if (!warmup) {
+                total.add(interval);
+            }
+            System.out.printf("%s %3ds sent=%d/s recv=%d/s p50=%.3fms p99=%.3fms max=%.3fms outstanding=%d%n",
+                    warmup ? "warmup" : "      ", second, sent - lastSent, received - lastReceived,
+                    interval.getValueAtPercentile(50) / NANOS_PER_MS,
+                    interval.getValueAtPercentile(99) / NANOS_PER_MS,
+                    interval.getMaxValue() / NANOS_PER_MS,
+                    stats.outstanding());
+            lastSent = sent;
+            lastReceived = received;
+        }
+        return total;
+    }
+
+    private void report(LoadStats stats, Histogram total) throws Exception {
+        System.out.println("========== result ==========");
+        System.out.printf("throughput   %.1f/s (target %d/s)%n", total.getTotalCount() / (double) durationSeconds, rate);
+        System.out.printf("responses    %d%n", total.getTotalCount());
+        System.out.printf("lost         %d%n", stats.lostCount());
+        System.out.printf("unexpected   %d%n", stats.unexpectedCount());
+        System.out.printf("outstanding  %d%n", stats.outstanding());
+        for (double percentile : new double[]{50, 90, 99, 99.9, 99.99}) {
+            System.out.printf("p%-11s %.3fms%n", percentile, total.getValueAtPercentile(percentile) / NANOS_PER_MS);
+        }
+        System.out.printf("max          %.3fms%n", total.getMaxValue() / NANOS_PER_MS);
+
+        if (histogramFile != null) {
+            try (PrintStream out = new PrintStream(new FileOutputStream(histogramFile))) {
+                total.outputPercentileDistribution(out, NANOS_PER_MS);
+            }
+            System.out.printf("延迟分布已写入 %s%n", histogramFile);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.demo.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 压测统计，多个EventLoop并发写入
+ * 延迟使用HdrHistogram Recorder记录，按区间取出后累加到总直方图
+ * @author Marion
+ * @date 2026/10/18
+ */
+final class LoadStats {
+
+    private final Recorder recorder = new Recorder(3);
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder received = new LongAdder();
+    private final LongAdder lost = new LongAdder();
+    private final LongAdder unexpected = new LongAdder();
+
+    private final List<LoadConnection> connections = new CopyOnWriteArrayList<>();
+    private final CountDownLatch allReady;
+
+    LoadStats(int connections) {
+        this.allReady = new CountDownLatch(connections);
+    }
+
+    void ready(LoadConnection connection) {
+        connections.add(connection);
+        allReady.countDown();
+    }
+
+    CountDownLatch allReady() {
+        return allReady;
+    }
+
+    List<LoadConnection> connections() {
+        return connections;
+    }
+
+    void sent() {
+        sent.increment();
+    }
+
+    void record(long latencyNanos) {
+        received.increment();
+        recorder.recordValue(latencyNanos);
+    }
+
+    void lost(long count) {
+        lost.add(count);
+    }
+
+    void unexpected() {
+        unexpected.increment();
+    }
+
+    /**
+     * 取出上次调用以来的延迟直方图
+     */
+    Histogram interval(Histogram recycle) {
+        return recorder.getIntervalHistogram(recycle);
+    }
+
+    long sentCount() {
+        return sent.sum();
+    }
+
+    long receivedCount() {
+        return received.sum();
+    }
+
+    long lostCount() {
+        return lost.sum();
+    }
+
+    long unexpectedCount() {
+        return unexpected.sum();
+    }
+
+    long outstanding() {
+        long outstanding = 0;
+        for (LoadConnection connection : connections) {
+            outstanding += connection.outstanding();
+        }
+        return outstanding;
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.demo.loadtest;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.WebSocketClientHandshaker;
+import io.netty.util.ReferenceCountUtil;
+
+/**
+ * WebSocket压测连接
+ * 1. 握手完成后订阅自己专属的主题 /sub lt-{id}
+ * 2. 每个请求发送 /pub lt-{id} {seq}，服务端只推送给该主题的订阅者即自己，以此作为往返延迟
+ * @author Marion
+ * @date 2026/10/18
+ */
+final class WebSocketLoadConnection extends LoadConnection {
+
+    private final WebSocketClientHandshaker handshaker;
+    private final String topic;
+    private final String pubPrefix;
+
+    WebSocketLoadConnection(LoadStats stats, long intervalNanos, WebSocketClientHandshaker handshaker, int id) {
+        super(stats, intervalNanos);
+        this.handshaker = handshaker;
+        this.topic = "lt-" + id;
+        this.pubPrefix = "/pub " + topic + " ";
+    }
+
+    @Override
+    public void channelActive(ChannelHandlerContext ctx) throws Exception {
+        handshaker.handshake(ctx.channel());
+        ctx.fireChannelActive();
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        try {
+            if (!handshaker.isHandshakeComplete()) {
+                handshaker.finishHandshake(ctx.channel(), (FullHttpResponse) msg);
+                ctx.writeAndFlush(new TextWebSocketFrame("/sub " + topic));
+                ready();
+                return;
+            }
+            if (msg instanceof TextWebSocketFrame) {
+                String text = ((TextWebSocketFrame) msg).text();
+                try {
+                    onResponse(Long.parseLong(text));
+                } catch (NumberFormatException e) {
+                    stats.unexpected();
+                }
+            }
+        } finally {
+            ReferenceCountUtil.release(msg);
+        }
+    }
+
+    @Override
+    protected void send(ChannelHandlerContext ctx, long seq) {
+        ctx.write(new TextWebSocketFrame(pubPrefix + seq), ctx.voidPromise());
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.demo.service.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Marion
+ * @date 2026/10/18
+ */
+class LocalCacheTest {
+
+    @Test
+    void testSingleFlightLoad() throws InterruptedException, ExecutionException, TimeoutException {
+        AtomicInteger loads = new AtomicInteger();
+        LocalCache<String, String> cache = LocalCache.<String, String>builder("test")
+                .loader(key -> {
+                    loads.incrementAndGet();
+                    sleep(100);
+                    return "v-" + key;
+                })
+                .build();
+
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return cache.get("a");
+            }));
+        }
+        start.countDown();
+
+        // 在测试线程中断言，任务内的异常经get()抛出
+        for (Future<String> result : results) {
+            assertEquals("v-a", result.get(5, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+        // 并发未命中只加载一次
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.stats().missCount());
+        assertEquals(threads - 1, cache.stats().hitCount());
+    }
+
+    @Test
+    void testBoundedSize() {
+        LocalCache<Integer, Integer> cache = LocalCache.<Integer, Integer>builder("bounded")
+                .maximumSize(100)
+                .executor(Runnable::run)
+                .build();
+        for (int i = 0; i < 1000; i++) {
+            cache.put(i, i);
+        }
+        cache.cleanUp();
+        assertTrue(cache.estimatedSize() <= 100);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
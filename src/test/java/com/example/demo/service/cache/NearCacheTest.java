@@ -0,0 +1,143 @@
+package com.example.demo.service.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 使用embedded-redis模拟两个节点共享同一个Redis
+ * @author Marion
+ * @date 2026/10/18
+ */
+class NearCacheTest {
+
+    private static RedisServer redisServer;
+    private static JedisConnectionFactory connectionFactory;
+    private static StringRedisTemplate redis;
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        redisServer = new RedisServer(port);
+        redisServer.start();
+
+        connectionFactory = new JedisConnectionFactory(new RedisStandaloneConfiguration("localhost", port));
+        connectionFactory.afterPropertiesSet();
+        redis = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void stopRedis() {
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    private static NearCacheManager newNode() {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.afterPropertiesSet();
+        NearCacheManager manager = new NearCacheManager(redis, container, new SimpleMeterRegistry());
+        container.start();
+        return manager;
+    }
+
+    @Test
+    void testReadThroughAndCrossNodeInvalidation() throws InterruptedException {
+        NearCache nodeA = newNode().getOrCreate("user", 100, Duration.ofMinutes(1));
+        NearCache nodeB = newNode().getOrCreate("user", 100, Duration.ofMinutes(1));
+        // 等待订阅建立
+        Thread.sleep(500);
+
+        assertEquals("v1", nodeA.get("1", k -> "v1"));
+        // B节点L1未命中，从L2读取，不访问数据源
+        assertEquals("v1", nodeB.get("1", k -> fail("should hit L2")));
+        assertEquals("v1", nodeB.local().getIfPresent("1"));
+
+        nodeA.put("1", "v2");
+        assertTrue(waitUntilEvicted(nodeB, "1"));
+        assertEquals("v2", nodeB.get("1", k -> fail("should hit L2")));
+        // 自己发出的失效消息不会删除本地L1
+        assertEquals("v2", nodeA.local().getIfPresent("1"));
+    }
+
+    @Test
+    void testBatchReadWrite() {
+        NearCache nodeA = newNode().getOrCreate("device", 100, Duration.ofMinutes(1));
+        NearCache nodeB = newNode().getOrCreate("device", 100, Duration.ofMinutes(1));
+
+        Map<String, String> values = new HashMap<>();
+        values.put("2", "b");
+        values.put("3", "c");
+        nodeA.putAll(values);
+
+        Map<String, String> result = nodeB.getAll(Arrays.asList("2", "3", "4"));
+        assertEquals(values, result);
+        assertEquals("b", nodeB.local().getIfPresent("2"));
+    }
+
+    @Test
+    void testSingleFlightAndLockRelease() throws InterruptedException {
+        NearCache node = newNode().getOrCreate("order", 100, Duration.ofMinutes(1));
+        String lockKey = "near:order:9:lock";
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+
+        Thread first = new Thread(() -> node.get("9", k -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            sleep(200);
+            // 模拟加载期间锁过期，被其他节点重新抢到
+            redis.opsForValue().set(lockKey, "other");
+            return "v9";
+        }));
+        first.start();
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        // 同一个key的并发未命中等待第一个线程的结果，不会再次加载
+        assertEquals("v9", node.get("9", k -> fail("should wait for in-flight load")));
+        first.join();
+        assertEquals(1, loads.get());
+        // 只删除自己持有的锁
+        assertEquals("other", redis.opsForValue().get(lockKey));
+        redis.delete(lockKey);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static boolean waitUntilEvicted(NearCache cache, String key) throws InterruptedException {
+        for (int i = 0; i < 50; i++) {
+            if (cache.local().getIfPresent(key) == null) {
+                return true;
+            }
+            Thread.sleep(20);
+        }
+        return false;
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.demo.service.connect.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.CharsetUtil;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Marion
+ * @date 2026/10/18
+ */
+class DeviceMessageCodecTest {
+
+    private final InFlightFrames inFlight = new InFlightFrames();
+
+    private EmbeddedChannel newChannel() {
+        return new EmbeddedChannel(
+                new DeviceFrameDecoder(1024),
+                new DeviceMessageDecoder(inFlight),
+                DeviceMessageEncoder.INSTANCE);
+    }
+
+    @Test
+    void testRoundTrip() {
+        EmbeddedChannel channel = newChannel();
+
+        ByteBuf body = Unpooled.copiedBuffer("hello", CharsetUtil.UTF_8);
+        assertTrue(channel.writeOutbound(DeviceMessage.newInstance((short) 1, (short) 2, (short) 3, (short) 4, 5, body)));
+        ByteBuf encoded = (ByteBuf) channel.readOutbound();
+        assertEquals(DeviceMessage.HEADER_LENGTH + 5, encoded.readableBytes());
+
+        // 分两段写入，验证半包
+        assertFalse(channel.writeInbound(encoded.readSlice(7).retain()));
+        assertTrue(channel.writeInbound(encoded));
+
+        DeviceMessage msg = (DeviceMessage) channel.readInbound();
+        assertEquals(1, msg.mark());
+        assertEquals(2, msg.ver());
+        assertEquals(3, msg.devType());
+        assertEquals(4, msg.mode());
+        assertEquals(5, msg.serial());
+        assertEquals("hello", msg.body().toString(CharsetUtil.UTF_8));
+        assertEquals(1, inFlight.count());
+
+        assertTrue(msg.release());
+        assertEquals(0, inFlight.count());
+        assertFalse(channel.finish());
+    }
+
+    @Test
+    void testEmptyBody() {
+        EmbeddedChannel channel = newChannel();
+
+        assertTrue(channel.writeOutbound(DeviceMessage.newInstance((short) 1, (short) 1, (short) 1, (short) 1, 1, null)));
+        ByteBuf encoded = (ByteBuf) channel.readOutbound();
+        assertEquals(DeviceMessage.HEADER_LENGTH, encoded.readableBytes());
+
+        assertTrue(channel.writeInbound(encoded));
+        DeviceMessage msg = (DeviceMessage) channel.readInbound();
+        assertEquals(0, msg.length());
+        msg.release();
+        assertFalse(channel.finish());
+    }
+
+    @Test
+    void testTooLongFrameDiscarded() {
+        EmbeddedChannel channel = newChannel();
+
+        // 包头声明4096字节包体，超过1024直接丢弃，后续正常帧不受影响
+        ByteBuf tooLong = Unpooled.buffer();
+        tooLong.writeZero(DeviceMessage.LENGTH_FIELD_OFFSET);
+        tooLong.writeInt(4096);
+        tooLong.writeZero(4096);
+        assertFalse(channel.writeInbound(tooLong));
+        assertTrue(channel.isActive());
+
+        assertTrue(channel.writeOutbound(DeviceMessage.newInstance((short) 1, (short) 1, (short) 1, (short) 1, 9, null)));
+        assertTrue(channel.writeInbound((ByteBuf) channel.readOutbound()));
+        DeviceMessage msg = (DeviceMessage) channel.readInbound();
+        assertEquals(9, msg.serial());
+        msg.release();
+        assertFalse(channel.finish());
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.demo.service.connect.dispatch;
+
+import com.example.demo.config.NettyServerConfig;
+import com.example.demo.service.connect.codec.DeviceMessage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Marion
+ * @date 2026/10/18
+ */
+class OrderedDispatcherTest {
+
+    @Test
+    void testPerChannelOrdering() throws Exception {
+        int total = 1000;
+        List<Integer> received = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(total);
+
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("listener", (DeviceMessageListener) (channel, msg) -> {
+            received.add(msg.serial());
+            latch.countDown();
+        });
+
+        NettyServerConfig config = new NettyServerConfig();
+        ReflectionTestUtils.setField(config, "offloadThreads", 4);
+        ReflectionTestUtils.setField(config, "offloadQueueCapacity", 16);
+        ReflectionTestUtils.setField(config, "offloadChannelHighWaterMark", 256);
+        ReflectionTestUtils.setField(config, "offloadChannelLowWaterMark", 64);
+
+        OrderedDispatcher dispatcher = new OrderedDispatcher(config,
+                beanFactory.getBeanProvider(DeviceMessageListener.class), new SimpleMeterRegistry());
+        EmbeddedChannel channel = new EmbeddedChannel();
+        for (int i = 0; i < total; i++) {
+            dispatcher.dispatch(channel, DeviceMessage.newInstance((short) 0, (short) 0, (short) 0, (short) 0, i, null));
+        }
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < total; i++) {
+            assertEquals(i, received.get(i));
+        }
+
+        channel.runPendingTasks();
+        assertTrue(channel.config().isAutoRead());
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void testDispatchAfterShutdownReleasesMessage() throws Exception {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        NettyServerConfig config = new NettyServerConfig();
+        ReflectionTestUtils.setField(config, "offloadThreads", 1);
+        ReflectionTestUtils.setField(config, "offloadQueueCapacity", 1);
+        ReflectionTestUtils.setField(config, "offloadChannelHighWaterMark", 256);
+        ReflectionTestUtils.setField(config, "offloadChannelLowWaterMark", 64);
+
+        OrderedDispatcher dispatcher = new OrderedDispatcher(config,
+                beanFactory.getBeanProvider(DeviceMessageListener.class), new SimpleMeterRegistry());
+        dispatcher.shutdown();
+
+        EmbeddedChannel channel = new EmbeddedChannel();
+        ByteBuf body = Unpooled.buffer(4).writeInt(1);
+        dispatcher.dispatch(channel, DeviceMessage.newInstance((short) 0, (short) 0, (short) 0, (short) 0, 0, body));
+
+        //不再重试调度，积压的消息已释放
+        assertEquals(0, body.refCnt());
+        assertEquals(-1, channel.runScheduledPendingTasks());
+        channel.finish();
+    }
+}
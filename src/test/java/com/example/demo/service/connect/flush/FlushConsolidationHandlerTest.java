@@ -0,0 +1,118 @@
+package com.example.demo.service.connect.flush;
+
+import com.example.demo.service.counter.CounterService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerAdapter;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Marion
+ * @date 2026/10/18
+ */
+class FlushConsolidationHandlerTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final FlushMetrics metrics = new FlushMetrics(new CounterService(), registry);
+    private final AtomicInteger socketFlushes = new AtomicInteger();
+
+    /**
+     * 统计真正到达socket的flush次数
+     */
+    private final ChannelHandlerAdapter flushCounter = new ChannelHandlerAdapter() {
+        @Override
+        public void flush(ChannelHandlerContext ctx) throws Exception {
+            socketFlushes.incrementAndGet();
+            ctx.flush();
+        }
+    };
+
+    /**
+     * 每收到一个消息就write + flush
+     */
+    private static final class EchoHandler extends ChannelHandlerAdapter {
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+            ctx.write(msg);
+            ctx.flush();
+        }
+    }
+
+    private EmbeddedChannel newChannel(int maxPendingFlushes) {
+        return new EmbeddedChannel(flushCounter,
+                new FlushConsolidationHandler(maxPendingFlushes, true, metrics),
+                new EchoHandler());
+    }
+
+    @Test
+    void testFlushesDuringReadAreMerged() {
+        EmbeddedChannel channel = newChannel(256);
+        socketFlushes.set(0);
+
+        channel.writeInbound(buffer(10), buffer(20), buffer(30));
+
+        assertEquals(1, socketFlushes.get());
+        DistributionSummary summary = registry.get("netty.flush.size").summary();
+        assertEquals(1, summary.count());
+        assertEquals(60, summary.totalAmount());
+        releaseOutbound(channel, 3);
+    }
+
+    @Test
+    void testFlushesOutsideReadAreMergedIntoOneTask() {
+        EmbeddedChannel channel = newChannel(256);
+        socketFlushes.set(0);
+
+        for (int i = 0; i < 5; i++) {
+            channel.writeAndFlush(buffer(8));
+        }
+        assertEquals(0, socketFlushes.get());
+
+        channel.runPendingTasks();
+        assertEquals(1, socketFlushes.get());
+        releaseOutbound(channel, 5);
+    }
+
+    @Test
+    void testFlushAfterMaxPending() {
+        EmbeddedChannel channel = newChannel(2);
+        socketFlushes.set(0);
+
+        channel.writeInbound(buffer(1), buffer(1), buffer(1), buffer(1), buffer(1));
+
+        // 每2次flush写出一次，剩余1次在读取结束时写出
+        assertEquals(3, socketFlushes.get());
+        releaseOutbound(channel, 5);
+    }
+
+    @Test
+    void testCloseFlushesPending() {
+        EmbeddedChannel channel = newChannel(256);
+        socketFlushes.set(0);
+
+        channel.writeAndFlush(buffer(4));
+        channel.close();
+
+        assertTrue(socketFlushes.get() >= 1);
+    }
+
+    private static ByteBuf buffer(int length) {
+        return Unpooled.buffer(length).writeZero(length);
+    }
+
+    private static void releaseOutbound(EmbeddedChannel channel, int expected) {
+        for (int i = 0; i < expected; i++) {
+            ByteBuf buf = (ByteBuf) channel.readOutbound();
+            assertNotNull(buf);
+            buf.release();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.demo.service.connect.limit;
+
+import com.example.demo.config.NettyServerConfig;
+import io.netty.channel.Channel;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 用EmbeddedChannel模拟监听socket，写入的子连接相当于刚accept的连接
+ * @author Marion
+ * @date 2026/10/18
+ */
+class AcceptLimiterTest {
+
+    private static AcceptLimiter newLimiter(int maxConnections) {
+        NettyServerConfig config = new NettyServerConfig();
+        ReflectionTestUtils.setField(config, "acceptConnectionsPerSecond", 1_000_000d);
+        ReflectionTestUtils.setField(config, "acceptBurst", 1_000_000);
+        ReflectionTestUtils.setField(config, "acceptMaxConnections", maxConnections);
+        return new AcceptLimiter(config);
+    }
+
+    @Test
+    void testRejectAboveMaxConnections() {
+        AcceptLimiter limiter = newLimiter(2);
+        EmbeddedChannel server = new EmbeddedChannel(limiter);
+
+        EmbeddedChannel first = new EmbeddedChannel();
+        EmbeddedChannel second = new EmbeddedChannel();
+        EmbeddedChannel third = new EmbeddedChannel();
+        server.writeInbound(first);
+        server.writeInbound(second);
+        assertEquals(2, limiter.connections());
+
+        server.writeInbound(third);
+        assertFalse(third.isOpen());
+        assertEquals(2, limiter.connections());
+        assertSame(first, (Channel) server.readInbound());
+        assertSame(second, (Channel) server.readInbound());
+        assertNull(server.readInbound());
+
+        // 连接关闭后释放名额
+        first.close();
+        first.runPendingTasks();
+        assertEquals(1, limiter.connections());
+        EmbeddedChannel fourth = new EmbeddedChannel();
+        server.writeInbound(fourth);
+        assertTrue(fourth.isOpen());
+        assertEquals(2, limiter.connections());
+        assertSame(fourth, (Channel) server.readInbound());
+    }
+}
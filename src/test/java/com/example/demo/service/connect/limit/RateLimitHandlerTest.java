@@ -0,0 +1,100 @@
+package com.example.demo.service.connect.limit;
+
+import com.example.demo.config.NettyServerConfig;
+import com.example.demo.service.connect.codec.DeviceMessage;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Marion
+ * @date 2026/10/18
+ */
+class RateLimitHandlerTest {
+
+    private static FrameRateLimiter newLimiter(double connectionRate, int connectionBurst) {
+        return newLimiter(connectionRate, connectionBurst, 1_000_000d, 1_000_000);
+    }
+
+    private static FrameRateLimiter newLimiter(double connectionRate, int connectionBurst,
+                                               double devTypeRate, int devTypeBurst) {
+        NettyServerConfig config = new NettyServerConfig();
+        ReflectionTestUtils.setField(config, "rateLimitConnectionFramesPerSecond", connectionRate);
+        ReflectionTestUtils.setField(config, "rateLimitConnectionBurst", connectionBurst);
+        ReflectionTestUtils.setField(config, "rateLimitDevTypeFramesPerSecond", devTypeRate);
+        ReflectionTestUtils.setField(config, "rateLimitDevTypeBurst", devTypeBurst);
+        return new FrameRateLimiter(config);
+    }
+
+    private static void writeFrame(EmbeddedChannel channel, int serial) {
+        channel.writeInbound(DeviceMessage.newInstance((short) 1, (short) 1, (short) 1, (short) 1, serial, null));
+    }
+
+    private static void releaseInbound(EmbeddedChannel channel) {
+        DeviceMessage msg;
+        while ((msg = (DeviceMessage) channel.readInbound()) != null) {
+            msg.release();
+        }
+        channel.finish();
+    }
+
+    @Test
+    void testSuspendAfterBurstAndResumeAfterRefill() throws InterruptedException {
+        // 每10ms一个令牌，突发5帧
+        EmbeddedChannel channel = new EmbeddedChannel(new RateLimitHandler(newLimiter(100, 5)));
+
+        for (int i = 0; i < 5; i++) {
+            writeFrame(channel, i);
+        }
+        assertTrue(channel.config().isAutoRead());
+
+        for (int i = 5; i < 10; i++) {
+            writeFrame(channel, i);
+        }
+        assertFalse(channel.config().isAutoRead());
+
+        // 超限的帧照常向后传递，不丢弃
+        for (int i = 0; i < 10; i++) {
+            DeviceMessage msg = (DeviceMessage) channel.readInbound();
+            assertEquals(i, msg.serial());
+            msg.release();
+        }
+        assertNull(channel.readInbound());
+
+        // 令牌补足后恢复读取
+        for (int i = 0; i < 100 && !channel.config().isAutoRead(); i++) {
+            Thread.sleep(10);
+            channel.runPendingTasks();
+        }
+        assertTrue(channel.config().isAutoRead());
+
+        writeFrame(channel, 10);
+        assertTrue(channel.config().isAutoRead());
+        ((DeviceMessage) channel.readInbound()).release();
+        channel.finish();
+    }
+
+    @Test
+    void testFloodingConnectionDoesNotStarveSameDevType() {
+        // 连接突发5帧，同类型设备合计突发10帧
+        FrameRateLimiter limiter = newLimiter(100, 5, 100, 10);
+        EmbeddedChannel flooding = new EmbeddedChannel(new RateLimitHandler(limiter));
+        EmbeddedChannel normal = new EmbeddedChannel(new RateLimitHandler(limiter));
+
+        for (int i = 0; i < 50; i++) {
+            writeFrame(flooding, i);
+        }
+        assertFalse(flooding.config().isAutoRead());
+
+        // 泛洪连接只在自身未超限时消耗了devType令牌，其他连接的突发不受影响
+        for (int i = 0; i < 5; i++) {
+            writeFrame(normal, i);
+        }
+        assertTrue(normal.config().isAutoRead());
+
+        releaseInbound(flooding);
+        releaseInbound(normal);
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.demo.service.connect.limit;
+
+import com.example.demo.config.NettyServerConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Marion
+ * @date 2026/10/18
+ */
+class TokenBucketTest {
+
+    @Test
+    void testBurstThenDebt() {
+        // 每秒1个，突发10个，测试期间基本不会补充令牌
+        TokenBucket bucket = new TokenBucket(1, 10);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0, bucket.acquire());
+        }
+        // 突发量用完，下一个令牌需要等待
+        assertTrue(bucket.delayNanos() > 0);
+
+        long debt = bucket.acquire();
+        assertTrue(debt > 0);
+        assertTrue(debt <= TimeUnit.SECONDS.toNanos(1));
+        assertTrue(bucket.delayNanos() > TimeUnit.MILLISECONDS.toNanos(1500));
+    }
+
+    @Test
+    void testRefill() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(1000, 1);
+        assertEquals(0, bucket.acquire());
+        assertTrue(bucket.acquire() > 0);
+
+        Thread.sleep(20);
+        assertEquals(0, bucket.delayNanos());
+        assertEquals(0, bucket.acquire());
+    }
+
+    @Test
+    void testConcurrentAcquireIsExact() throws InterruptedException {
+        int burst = 10_000;
+        TokenBucket bucket = new TokenBucket(0.001, burst);
+        int threads = 8;
+        int perThread = 2_000;
+        AtomicInteger admitted = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    if (bucket.acquire() == 0) {
+                        admitted.incrementAndGet();
+                    }
+                }
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        // 没有锁也不会多发或少发令牌
+        assertEquals(burst, admitted.get());
+    }
+
+    @Test
+    void testDevTypeBucketIsShared() {
+        FrameRateLimiter limiter = new FrameRateLimiter(config());
+        assertSame(limiter.deviceTypeBucket((short) 7), limiter.deviceTypeBucket((short) 7));
+        assertSame(limiter.deviceTypeBucket((short) -1), limiter.deviceTypeBucket((short) 0xFFFF));
+        assertNotSame(limiter.deviceTypeBucket((short) 7), limiter.deviceTypeBucket((short) 8));
+        assertNotSame(limiter.newConnectionBucket(), limiter.newConnectionBucket());
+    }
+
+    private static NettyServerConfig config() {
+        NettyServerConfig config = new NettyServerConfig();
+        ReflectionTestUtils.setField(config, "rateLimitConnectionFramesPerSecond", 100d);
+        ReflectionTestUtils.setField(config, "rateLimitConnectionBurst", 10);
+        ReflectionTestUtils.setField(config, "rateLimitDevTypeFramesPerSecond", 1000d);
+        ReflectionTestUtils.setField(config, "rateLimitDevTypeBurst", 100);
+        return config;
+    }
+}
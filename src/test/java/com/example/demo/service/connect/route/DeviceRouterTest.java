@@ -0,0 +1,145 @@
+package com.example.demo.service.connect.route;
+
+import com.example.demo.service.connect.codec.DeviceMessage;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Marion
+ * @date 2026/10/18
+ */
+class DeviceRouterTest {
+
+    private final DeviceRouteTable routeTable = new DeviceRouteTable();
+    private final DeviceRouter router = new DeviceRouter(routeTable);
+
+    private EmbeddedChannel newDevice(int serial) {
+        DeviceRouteHandler handler = new DeviceRouteHandler();
+        ReflectionTestUtils.setField(handler, "routeTable", routeTable);
+        EmbeddedChannel channel = new EmbeddedChannel(handler);
+        channel.writeInbound(DeviceMessage.newInstance((short) 1, (short) 1, (short) 1, (short) 1, serial, null));
+        ((DeviceMessage) channel.readInbound()).release();
+        return channel;
+    }
+
+    @Test
+    void testRegisterOnFirstFrameAndRemoveOnClose() {
+        EmbeddedChannel channel = newDevice(42);
+        assertSame(channel, routeTable.get(42));
+
+        // 后续帧的serial不改变路由
+        channel.writeInbound(DeviceMessage.newInstance((short) 1, (short) 1, (short) 1, (short) 1, 43, null));
+        ((DeviceMessage) channel.readInbound()).release();
+        assertNull(routeTable.get(43));
+
+        // close在这个Netty版本中异步触发channelInactive，需要执行挂起的任务
+        channel.close();
+        channel.runPendingTasks();
+        assertNull(routeTable.get(42));
+        assertEquals(0, routeTable.size());
+    }
+
+    @Test
+    void testHeartbeatDoesNotRegister() {
+        DeviceRouteHandler handler = new DeviceRouteHandler();
+        ReflectionTestUtils.setField(handler, "routeTable", routeTable);
+        EmbeddedChannel channel = new EmbeddedChannel(handler);
+        channel.writeInbound(DeviceMessage.newInstance((short) 0, (short) 0, (short) 0, DeviceMessage.MODE_PING, 7, null));
+        ((DeviceMessage) channel.readInbound()).release();
+        assertNull(routeTable.get(7));
+    }
+
+    @Test
+    void testReconnectKeepsNewRoute() {
+        EmbeddedChannel old = newDevice(1);
+        EmbeddedChannel current = newDevice(1);
+        assertSame(current, routeTable.get(1));
+
+        old.close();
+        old.runPendingTasks();
+        assertFalse(old.isActive());
+        assertSame(current, routeTable.get(1));
+
+        // 新连接断开后路由被删除
+        current.close();
+        current.runPendingTasks();
+        assertNull(routeTable.get(1));
+        assertEquals(0, routeTable.size());
+    }
+
+    @Test
+    void testSendAndSendAll() {
+        EmbeddedChannel a = newDevice(100);
+        EmbeddedChannel b = newDevice(200);
+
+        assertTrue(router.send(100, DeviceMessage.newInstance((short) 0, (short) 0, (short) 0, (short) 2, 100, null)));
+        DeviceMessage sent = (DeviceMessage) a.readOutbound();
+        assertEquals(100, sent.serial());
+        sent.release();
+
+        DeviceMessage offline = DeviceMessage.newInstance((short) 0, (short) 0, (short) 0, (short) 2, 300, null);
+        assertFalse(router.send(300, offline));
+        assertEquals(0, offline.refCnt());
+
+        int submitted = router.sendAll(new int[]{100, 200, 300},
+                serial -> DeviceMessage.newInstance((short) 0, (short) 0, (short) 0, (short) 3, serial, null));
+        assertEquals(2, submitted);
+        a.runPendingTasks();
+        b.runPendingTasks();
+
+        DeviceMessage toA = (DeviceMessage) a.readOutbound();
+        DeviceMessage toB = (DeviceMessage) b.readOutbound();
+        assertEquals(100, toA.serial());
+        assertEquals(200, toB.serial());
+        toA.release();
+        toB.release();
+    }
+
+    @Test
+    void testSkipUnwritableDevice() {
+        EmbeddedChannel slow = newDevice(500);
+        EmbeddedChannel fast = newDevice(600);
+        slow.config().setWriteBufferLowWaterMark(8);
+        slow.config().setWriteBufferHighWaterMark(16);
+        // 未flush的数据超过高水位，模拟设备读取跟不上
+        slow.write(Unpooled.buffer(64).writeZero(64));
+        assertFalse(slow.isWritable());
+        assertFalse(router.isWritable(500));
+
+        DeviceMessage msg = DeviceMessage.newInstance((short) 0, (short) 0, (short) 0, (short) 2, 500, null);
+        assertFalse(router.send(500, msg));
+        assertEquals(0, msg.refCnt());
+
+        int submitted = router.sendAll(new int[]{500, 600},
+                serial -> DeviceMessage.newInstance((short) 0, (short) 0, (short) 0, (short) 3, serial, null));
+        assertEquals(1, submitted);
+        fast.runPendingTasks();
+        DeviceMessage toFast = (DeviceMessage) fast.readOutbound();
+        assertEquals(600, toFast.serial());
+        toFast.release();
+
+        slow.flush();
+        ((ByteBuf) slow.readOutbound()).release();
+        assertTrue(router.isWritable(500));
+        assertNull(slow.readOutbound());
+    }
+
+    @Test
+    void testManySerials() {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        for (int serial = 0; serial < 100_000; serial++) {
+            routeTable.put(serial, channel);
+        }
+        assertEquals(100_000, routeTable.size());
+        for (int serial = 0; serial < 100_000; serial++) {
+            assertSame(channel, routeTable.get(serial));
+            assertTrue(routeTable.remove(serial, channel));
+        }
+        assertEquals(0, routeTable.size());
+    }
+}
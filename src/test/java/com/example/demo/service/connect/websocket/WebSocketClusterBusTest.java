@@ -0,0 +1,143 @@
+package com.example.demo.service.connect.websocket;
+
+import com.example.demo.config.NettyServerConfig;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+/**
+ * 使用embedded-redis模拟两个节点
+ * @author Marion
+ * @date 2026/10/18
+ */
+class WebSocketClusterBusTest {
+
+    private static RedisServer redisServer;
+    private static JedisConnectionFactory connectionFactory;
+    private static StringRedisTemplate redis;
+
+    private final List<WebSocketClusterBus> buses = new ArrayList<>();
+    private final List<RedisMessageListenerContainer> containers = new ArrayList<>();
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        redisServer = new RedisServer(port);
+        redisServer.start();
+
+        connectionFactory = new JedisConnectionFactory(new RedisStandaloneConfiguration("localhost", port));
+        connectionFactory.afterPropertiesSet();
+        redis = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void stopRedis() {
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    @AfterEach
+    void stopNodes() throws Exception {
+        for (WebSocketClusterBus bus : buses) {
+            bus.stop();
+        }
+        for (RedisMessageListenerContainer container : containers) {
+            container.destroy();
+        }
+    }
+
+    private WebSocketClusterBus newNode(WebSocketBroadcaster broadcaster, WebSocketTopicRegistry registry) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.afterPropertiesSet();
+        WebSocketClusterBus bus = new WebSocketClusterBus(redis, container, broadcaster, registry,
+                true, "ws:test", 1024, 64);
+        bus.start();
+        container.start();
+        containers.add(container);
+        buses.add(bus);
+        return bus;
+    }
+
+    @Test
+    void testTopicFanOutAcrossNodes() throws InterruptedException {
+        WebSocketBroadcaster broadcasterA = mock(WebSocketBroadcaster.class);
+        WebSocketBroadcaster broadcasterB = mock(WebSocketBroadcaster.class);
+        WebSocketTopicRegistry registryB = new WebSocketTopicRegistry();
+        WebSocketClusterBus nodeA = newNode(broadcasterA, new WebSocketTopicRegistry());
+        newNode(broadcasterB, registryB);
+        // 等待订阅建立
+        Thread.sleep(500);
+
+        nodeA.publish("room", "hello");
+
+        // B节点发给自己的订阅者
+        verify(broadcasterB, timeout(5000)).broadcast(same(registryB.subscribers("room")), eq("hello"));
+        // A节点本地发送一次，Redis回来的自己的消息被忽略
+        Thread.sleep(200);
+        verify(broadcasterA, times(1)).broadcast(any(), eq("hello"));
+    }
+
+    @Test
+    void testBroadcastAllInBatches() throws InterruptedException {
+        WebSocketBroadcaster broadcasterB = mock(WebSocketBroadcaster.class);
+        WebSocketClusterBus nodeA = newNode(mock(WebSocketBroadcaster.class), new WebSocketTopicRegistry());
+        newNode(broadcasterB, new WebSocketTopicRegistry());
+        Thread.sleep(500);
+
+        int messages = 1000;
+        for (int i = 0; i < messages; i++) {
+            nodeA.publishAll("msg-" + i);
+        }
+
+        verify(broadcasterB, timeout(10000).times(messages)).broadcast(same(NettyServerConfig.group), startsWith("msg-"));
+    }
+
+    @Test
+    void testBinaryFanOutAcrossNodes() throws InterruptedException {
+        WebSocketBroadcaster broadcasterA = mock(WebSocketBroadcaster.class);
+        WebSocketBroadcaster broadcasterB = mock(WebSocketBroadcaster.class);
+        WebSocketClusterBus nodeA = newNode(broadcasterA, new WebSocketTopicRegistry());
+        newNode(broadcasterB, new WebSocketTopicRegistry());
+        Thread.sleep(500);
+
+        byte[] bytes = {0, 1, '|', (byte) 0xFF, 'T'};
+        ByteBuf payload = Unpooled.wrappedBuffer(bytes);
+        nodeA.publishAllBinary(payload);
+
+        // A节点本地广播原始payload
+        verify(broadcasterA).broadcastBinary(same(NettyServerConfig.group), same(payload));
+        ArgumentCaptor<ByteBuf> received = ArgumentCaptor.forClass(ByteBuf.class);
+        verify(broadcasterB, timeout(5000)).broadcastBinary(same(NettyServerConfig.group), received.capture());
+        ByteBuf copy = received.getValue();
+        byte[] actual = new byte[copy.readableBytes()];
+        copy.getBytes(copy.readerIndex(), actual);
+        assertArrayEquals(bytes, actual);
+        verify(broadcasterB, never()).broadcast(any(), anyString());
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.demo.service.connect.websocket;
+
+import com.example.demo.config.NettyServerConfig;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.HttpServerCodec;
+import io.netty.handler.codec.http.websocketx.WebSocketServerHandshakerFactory;
+import io.netty.util.CharsetUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Marion
+ * @date 2026/10/18
+ */
+class WebSocketHandshakeHandlerTest {
+
+    private static EmbeddedChannel newChannel() {
+        NettyServerConfig config = new NettyServerConfig();
+        ReflectionTestUtils.setField(config, "webSocketPath", "/websocket");
+
+        WebSocketHandshakeHandler handler = new WebSocketHandshakeHandler();
+        ReflectionTestUtils.setField(handler, "nettyConfig", config);
+        ReflectionTestUtils.setField(handler, "handshakerFactory",
+                new WebSocketServerHandshakerFactory("ws://localhost/websocket", null, false, 65536));
+        return new EmbeddedChannel(new HttpServerCodec(), new HttpObjectAggregator(65536), handler);
+    }
+
+    private static String writeRequest(EmbeddedChannel channel, String request) {
+        channel.writeInbound(Unpooled.copiedBuffer(request, CharsetUtil.US_ASCII));
+        ByteBuf response = (ByteBuf) channel.readOutbound();
+        String text = response.toString(CharsetUtil.US_ASCII);
+        response.release();
+        return text;
+    }
+
+    @Test
+    void testUpgrade() {
+        EmbeddedChannel channel = newChannel();
+        String response = writeRequest(channel, "GET /websocket HTTP/1.1\r\n"
+                + "Host: localhost\r\n"
+                + "Upgrade: WebSocket\r\n"
+                + "Connection: Upgrade\r\n"
+                + "Sec-WebSocket-Key: dGhlIHNhbXBsZSBub25jZQ==\r\n"
+                + "Sec-WebSocket-Version: 13\r\n"
+                + "\r\n");
+
+        assertTrue(response.startsWith("HTTP/1.1 101"), response);
+        assertTrue(response.contains("s3pPLMBiTxaQ9kYGzzhZRbK+xOo="), response);
+        assertNotNull(channel.attr(WebSocketHandshakeHandler.HANDSHAKER).get());
+        assertNull(channel.pipeline().get(WebSocketHandshakeHandler.class));
+        assertTrue(NettyServerConfig.group.remove(channel));
+        channel.finish();
+    }
+
+    @Test
+    void testRejectWithoutUpgradeHeader() {
+        EmbeddedChannel channel = newChannel();
+        String response = writeRequest(channel, "GET /websocket HTTP/1.1\r\n"
+                + "Host: localhost\r\n"
+                + "\r\n");
+
+        assertTrue(response.startsWith("HTTP/1.1 400"), response);
+        channel.runPendingTasks();
+        assertFalse(channel.isOpen());
+    }
+}
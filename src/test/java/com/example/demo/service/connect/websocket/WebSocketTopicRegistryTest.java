@@ -0,0 +1,34 @@
+package com.example.demo.service.connect.websocket;
+
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Marion
+ * @date 2026/10/18
+ */
+class WebSocketTopicRegistryTest {
+
+    @Test
+    void testSubscribeAndCleanup() {
+        WebSocketTopicRegistry registry = new WebSocketTopicRegistry();
+        EmbeddedChannel a = new EmbeddedChannel();
+        EmbeddedChannel b = new EmbeddedChannel();
+
+        registry.subscribe(a, "room1");
+        registry.subscribe(a, "room2");
+        registry.subscribe(b, "room1");
+        assertEquals(2, registry.subscribers("room1").size());
+        assertEquals(2, registry.topicCount());
+
+        registry.unsubscribe(b, "room1");
+        assertEquals(1, registry.subscribers("room1").size());
+
+        // 断开连接清理全部订阅，空主题被删除
+        registry.unsubscribeAll(a);
+        assertTrue(registry.subscribers("room1").isEmpty());
+        assertEquals(0, registry.topicCount());
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.demo.service.counter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Marion
+ * @date 2026/10/18
+ */
+class CounterServiceTest {
+
+    @Test
+    void testConcurrentIncrement() throws InterruptedException {
+        CounterService counterService = new CounterService();
+        int threads = 16;
+        int perThread = 10_000;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch latch = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            executor.execute(() -> {
+                for (int j = 0; j < perThread; j++) {
+                    counterService.increment("age");
+                }
+                latch.countDown();
+            });
+        }
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        executor.shutdown();
+        assertEquals((long) threads * perThread, counterService.sum("age"));
+        assertEquals(threads * perThread, counterService.snapshot().get("age").intValue());
+    }
+
+    @Test
+    void testRateFromSampledTotals() {
+        CounterService counterService = new CounterService();
+        NamedCounter counter = counterService.counter("requests");
+        long second = TimeUnit.SECONDS.toNanos(1);
+
+        counter.add(100);
+        counter.sampleRate(0);
+        assertEquals(0D, counter.perSecond());
+
+        counter.add(200);
+        counter.sampleRate(second);
+        counter.add(300);
+        counter.sampleRate(2 * second);
+        assertEquals(250D, counterService.perSecond("requests"), 0.001);
+
+        // 重置后不出现负速率
+        counterService.reset("requests");
+        counter.sampleRate(3 * second);
+        assertEquals(0D, counter.perSecond());
+    }
+
+    @Test
+    void testUnknownCounter() {
+        assertEquals(0L, new CounterService().sum("missing"));
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.demo.service.juc.lock;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Marion
+ * @date 2026/10/18
+ */
+class LockToolkitTest {
+
+    private int counter;
+
+    @Test
+    void testSpinLock() throws InterruptedException {
+        assertMutualExclusion(new SpinLock());
+        assertReentrant(new SpinLock());
+    }
+
+    @Test
+    void testMcsLock() throws InterruptedException {
+        assertMutualExclusion(new McsLock());
+        assertReentrant(new McsLock());
+    }
+
+    @Test
+    void testSpinThenParkLock() throws InterruptedException {
+        assertMutualExclusion(new SpinThenParkLock());
+        assertReentrant(new SpinThenParkLock());
+    }
+
+    private void assertMutualExclusion(BasicLock lock) throws InterruptedException {
+        // 纯自旋的锁在线程数超过CPU核数时，等待线程会把持锁线程挤出CPU，线程数不超过核数
+        int threads = Runtime.getRuntime().availableProcessors();
+        int perThread = 20_000;
+        counter = 0;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch latch = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            executor.execute(() -> {
+                for (int j = 0; j < perThread; j++) {
+                    lock.lock();
+                    try {
+                        counter++;
+                    } finally {
+                        lock.unlock();
+                    }
+                }
+                latch.countDown();
+            });
+        }
+
+        assertTrue(latch.await(30, TimeUnit.SECONDS));
+        executor.shutdown();
+        assertEquals(threads * perThread, counter);
+    }
+
+    private void assertReentrant(BasicLock lock) throws InterruptedException {
+        lock.lock();
+        lock.lock();
+        lock.unlock();
+
+        // 仍持有一次，其他线程获取失败，也不能解锁
+        AtomicBoolean acquired = new AtomicBoolean(true);
+        AtomicBoolean rejected = new AtomicBoolean(false);
+        Thread other = new Thread(() -> {
+            acquired.set(lock.tryLock());
+            try {
+                lock.unlock();
+            } catch (IllegalMonitorStateException e) {
+                rejected.set(true);
+            }
+        });
+        other.start();
+        other.join();
+        assertFalse(acquired.get());
+        assertTrue(rejected.get());
+
+        lock.unlock();
+        assertThrows(IllegalMonitorStateException.class, lock::unlock);
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.demo.service.persist;
+
+import com.example.demo.service.connect.codec.DeviceMessage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Marion
+ * @date 2026/10/18
+ */
+class DeviceFrameWriterTest {
+
+    private EmbeddedDatabase db;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        db = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+        jdbcTemplate = new JdbcTemplate(db);
+        jdbcTemplate.execute("CREATE TABLE device_frame ("
+                + "id BIGINT AUTO_INCREMENT PRIMARY KEY, serial INT NOT NULL, dev_type SMALLINT NOT NULL, "
+                + "frame_mode SMALLINT NOT NULL, ver SMALLINT NOT NULL, body VARBINARY(65536), received_at BIGINT NOT NULL)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        db.shutdown();
+    }
+
+    @Test
+    void testFlushOnBatchSizeAndOnStop() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        DeviceFrameWriter writer = new DeviceFrameWriter(jdbcTemplate, registry, 1024, 100, 60_000);
+        writer.start();
+
+        int frames = 250;
+        for (int i = 0; i < frames; i++) {
+            DeviceMessage msg = DeviceMessage.newInstance((short) 1, (short) 1, (short) 2, (short) 3, i,
+                    Unpooled.copiedBuffer("frame-" + i, StandardCharsets.UTF_8));
+            try {
+                writer.onMessage(null, msg);
+            } finally {
+                msg.release();
+            }
+        }
+
+        //刷盘间隔很长，凑满batch的两批先落库
+        long deadline = System.currentTimeMillis() + 5000;
+        while (count() < 200 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(200, count());
+
+        //停机时刷完剩余不足一批的帧
+        writer.stop();
+        assertEquals(frames, count());
+        assertEquals(frames, registry.get("device.persist.frames").tag("result", "success").counter().count());
+
+        byte[] body = jdbcTemplate.queryForObject("SELECT body FROM device_frame WHERE serial = 7", byte[].class);
+        assertEquals("frame-7", new String(body, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testFlushOnInterval() throws Exception {
+        DeviceFrameWriter writer = new DeviceFrameWriter(jdbcTemplate, new SimpleMeterRegistry(), 1024, 500, 50);
+        writer.start();
+        try {
+            DeviceMessage msg = DeviceMessage.newInstance((short) 1, (short) 1, (short) 2, (short) 3, 1, null);
+            writer.onMessage(null, msg);
+            msg.release();
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while (count() < 1 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(1, count());
+        } finally {
+            writer.stop();
+        }
+    }
+
+    private int count() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM device_frame", Integer.class);
+    }
+}